@@ -0,0 +1,38 @@
+package com.example.bff.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.time.Instant;
+
+/**
+ * Verified identity carried by a JWT. Built once per token by {@link JwtUtil#authenticate}
+ * and stored as the Spring Security principal, so controllers never re-parse the header.
+ */
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    
+    private final Long userId;
+    private final String username;
+    private final String role;
+    private final Instant expiresAt;
+    
+    public AuthenticatedUser(Long userId, String username, String role, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+    
+    public Long getUserId() { return userId; }
+    
+    public String getUsername() { return username; }
+    
+    public String getRole() { return role; }
+    
+    public Instant getExpiresAt() { return expiresAt; }
+    
+    @Override
+    public String getName() { return username; }
+    
+    @Override
+    public String toString() { return username; }
+}
@@ -0,0 +1,58 @@
+package com.example.bff.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every outbound call as {@code bff.downstream.requests}, tagged by downstream service,
+ * method, route and status. Numeric path segments are collapsed to {@code {id}} so the route
+ * tag stays low-cardinality even though callers build URLs by concatenation.
+ */
+public class DownstreamMetricsInterceptor implements ClientHttpRequestInterceptor {
+    
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    
+    private final String downstream;
+    private final MeterRegistry meterRegistry;
+    
+    public DownstreamMetricsInterceptor(String downstream, MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            Timer.builder("bff.downstream.requests")
+                    .description("Outbound calls from the BFF to downstream services")
+                    .tag("downstream", downstream)
+                    .tag("method", request.getMethod().name())
+                    .tag("route", route(request.getURI().getPath()))
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    static String route(String path) {
+        if (path == null || path.isEmpty()) return "/";
+        return NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
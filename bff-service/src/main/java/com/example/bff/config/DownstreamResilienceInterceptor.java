@@ -0,0 +1,107 @@
+package com.example.bff.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guards every outbound call to one downstream with a bulkhead and a circuit breaker.
+ * The bulkhead caps concurrent calls so a hung service can only hold that many request
+ * threads; the breaker fails fast with {@code CallNotPermittedException} once the service
+ * keeps failing, then lets a few probe calls through in half-open state. 5xx responses,
+ * I/O errors and timeouts count as failures; 4xx responses are the caller's problem and
+ * count as successes. The breaker times a call up to its response headers, while the bulkhead
+ * permit is held until the response is closed, so reading a large body counts against it too.
+ */
+public class DownstreamResilienceInterceptor implements ClientHttpRequestInterceptor {
+    
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    
+    public DownstreamResilienceInterceptor(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+    
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        bulkhead.acquirePermission();
+        ClientHttpResponse response;
+        try {
+            circuitBreaker.acquirePermission();
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                response = execution.execute(request, body);
+                long duration = circuitBreaker.getCurrentTimestamp() - start;
+                if (response.getStatusCode().is5xxServerError()) {
+                    circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                            new HttpServerErrorException(response.getStatusCode()));
+                } else {
+                    circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                }
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            bulkhead.onComplete();
+            throw e;
+        }
+        // The body is read after we return, so the call holds its permit until the response is closed
+        return new BulkheadReleasingResponse(response, bulkhead);
+    }
+    
+    private static final class BulkheadReleasingResponse implements ClientHttpResponse {
+        
+        private final ClientHttpResponse delegate;
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        BulkheadReleasingResponse(ClientHttpResponse delegate, Bulkhead bulkhead) {
+            this.delegate = delegate;
+            this.bulkhead = bulkhead;
+        }
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.bff.config;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One pooled, instrumented {@link RestTemplate} per downstream service. Each downstream gets
+ * its own keep-alive connection pool and timeouts, so a slow service can only exhaust its own
+ * connections, every call is timed by {@link DownstreamMetricsInterceptor}, and each downstream
+ * has its own circuit breaker and bulkhead ({@link DownstreamResilienceInterceptor}) named
+ * after it under {@code resilience4j.*.instances}.
+ */
+@Configuration
+public class HttpClientConfig implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+    
+    @Autowired
+    private HttpClientProperties properties;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
+    private final List<CloseableHttpClient> clients = new ArrayList<>();
+    
+    @Bean
+    public RestTemplate inventoryRestTemplate() {
+        return buildRestTemplate("inventory");
+    }
+    
+    /**
+     * Inventory client for bulk imports. Interceptors make RestTemplate buffer the whole request
+     * body, so this one has none and streams the upload through; it has its own small pool and
+     * a long read timeout (bff.http.downstreams.inventory-import) and stays clear of the
+     * inventory breaker, which would count every import as a slow call.
+     */
+    @Bean
+    public RestTemplate inventoryImportRestTemplate() {
+        return buildRestTemplate("inventory-import", false);
+    }
+    
+    // Long-polls inventory's stock event feed; a separate downstream so held polls are not slow inventory calls
+    @Bean
+    public RestTemplate inventoryEventsRestTemplate() {
+        return buildRestTemplate("inventory-events");
+    }
+    
+    @Bean
+    public RestTemplate cartRestTemplate() {
+        return buildRestTemplate("cart");
+    }
+    
+    @Bean
+    public RestTemplate identityRestTemplate() {
+        return buildRestTemplate("identity");
+    }
+    
+    @Bean
+    public RestTemplate orderRestTemplate() {
+        return buildRestTemplate("order");
+    }
+    
+    @Bean
+    public RestTemplate paymentRestTemplate() {
+        return buildRestTemplate("payment");
+    }
+    
+    private RestTemplate buildRestTemplate(String downstream) {
+        return buildRestTemplate(downstream, true);
+    }
+    
+    private RestTemplate buildRestTemplate(String downstream, boolean intercepted) {
+        Duration connectTimeout = properties.connectTimeout(downstream);
+        Duration readTimeout = properties.readTimeout(downstream);
+        int maxConnections = properties.maxConnections(downstream);
+        
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, downstream).bindTo(meterRegistry);
+        
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+        clients.add(httpClient);
+        
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        if (intercepted) {
+            // Resilience first, so calls rejected by an open breaker or a full bulkhead are not timed as downstream calls
+            restTemplate.getInterceptors().add(new DownstreamResilienceInterceptor(
+                    circuitBreakerRegistry.circuitBreaker(downstream), bulkheadRegistry.bulkhead(downstream)));
+            restTemplate.getInterceptors().add(new DownstreamMetricsInterceptor(downstream, meterRegistry));
+        }
+        
+        logger.info("HTTP client for {}: maxConnections={}, connectTimeout={}, readTimeout={}",
+                downstream, maxConnections, connectTimeout, readTimeout);
+        return restTemplate;
+    }
+    
+    @Override
+    public void destroy() throws Exception {
+        for (CloseableHttpClient client : clients) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bff.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outbound HTTP client settings. The top-level values are defaults for every downstream;
+ * entries under {@code bff.http.downstreams.<name>} override them for a single service.
+ */
+@Component
+@ConfigurationProperties(prefix = "bff.http")
+public class HttpClientProperties {
+    
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration poolAcquireTimeout = Duration.ofSeconds(1);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private int maxConnections = 50;
+    private Map<String, Downstream> downstreams = new HashMap<>();
+    
+    public Duration connectTimeout(String downstream) {
+        Downstream d = downstreams.get(downstream);
+        return d != null && d.getConnectTimeout() != null ? d.getConnectTimeout() : connectTimeout;
+    }
+    
+    public Duration readTimeout(String downstream) {
+        Downstream d = downstreams.get(downstream);
+        return d != null && d.getReadTimeout() != null ? d.getReadTimeout() : readTimeout;
+    }
+    
+    public int maxConnections(String downstream) {
+        Downstream d = downstreams.get(downstream);
+        return d != null && d.getMaxConnections() != null ? d.getMaxConnections() : maxConnections;
+    }
+    
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+    
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+    
+    public Duration getPoolAcquireTimeout() { return poolAcquireTimeout; }
+    public void setPoolAcquireTimeout(Duration poolAcquireTimeout) { this.poolAcquireTimeout = poolAcquireTimeout; }
+    
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+    
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+    
+    public Map<String, Downstream> getDownstreams() { return downstreams; }
+    public void setDownstreams(Map<String, Downstream> downstreams) { this.downstreams = downstreams; }
+    
+    public static class Downstream {
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        private Integer maxConnections;
+        
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+        
+        public Duration getReadTimeout() { return readTimeout; }
+        public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+        
+        public Integer getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(Integer maxConnections) { this.maxConnections = maxConnections; }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,33 +28,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
-        
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("JWT token validation failed: " + e.getMessage());
-            }
-        }
-        
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt)) {
-                String role = jwtUtil.extractRole(jwt);
-                Long userId = jwtUtil.extractUserId(jwt);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            // Single verification per token; repeat requests hit the verified-claims cache
+            Optional<AuthenticatedUser> authenticated = jwtUtil.authenticate(jwt);
+            if (authenticated.isPresent()) {
+                AuthenticatedUser user = authenticated.get();
                 
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+                        user, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole())));
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Store userId in request attribute for downstream use
-                request.setAttribute("userId", userId);
-                request.setAttribute("username", username);
-                request.setAttribute("role", role);
+                request.setAttribute("userId", user.getUserId());
+                request.setAttribute("username", user.getUsername());
+                request.setAttribute("role", user.getRole());
                 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+            } else {
+                logger.debug("JWT token validation failed");
             }
         }
         
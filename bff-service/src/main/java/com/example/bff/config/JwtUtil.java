@@ -1,15 +1,25 @@
 package com.example.bff.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -17,50 +27,79 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
     
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    @Value("${jwt.cache.max-ttl:5m}")
+    private Duration cacheMaxTtl;
     
-    public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
-    }
+    @Autowired
+    private MeterRegistry meterRegistry;
     
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
-    }
+    private JwtParser parser;
     
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    // Tokens whose signature has already been verified; an entry never outlives its token
+    private Cache<String, AuthenticatedUser> verifiedTokens;
     
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @PostConstruct
+    void init() {
+        SecretKey signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "bff.jwt.verified");
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verify a token once and return its principal, or empty if the signature is invalid or
+     * the token has expired. Repeat calls with the same token are served from the cache.
+     */
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        AuthenticatedUser cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = extractAllClaims(token);
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.before(new Date())) {
+                return Optional.empty();
+            }
+            AuthenticatedUser user = new AuthenticatedUser(
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expiration.toInstant());
+            verifiedTokens.put(token, user);
+            return Optional.of(user);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
     
-    public Boolean validateToken(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+    private class TokenExpiry implements Expiry<String, AuthenticatedUser> {
+        @Override
+        public long expireAfterCreate(String token, AuthenticatedUser user, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), user.getExpiresAt());
+            Duration ttl = untilExpiry.compareTo(cacheMaxTtl) < 0 ? untilExpiry : cacheMaxTtl;
+            return Math.max(0, ttl.toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String token, AuthenticatedUser user, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, user, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String token, AuthenticatedUser user, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -6,10 +6,13 @@ import com.example.bff.service.OrderService;
 import com.example.bff.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -31,12 +34,33 @@ public class AdminController {
         return ResponseEntity.ok(saved);
     }
     
+    // Bulk import: NDJSON, or CSV with a header row; the body is passed on to inventory as it arrives
+    @PostMapping(value = "/products/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Map<String, Object>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        Map<String, Object> result = productService.importProducts(body, contentType);
+        return ResponseEntity.ok(result);
+    }
+    
     @PutMapping("/products/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDTO product) {
         ProductDTO updated = productService.updateProduct(id, product);
         return ResponseEntity.ok(updated);
     }
     
+    @PutMapping("/products/{id}/hot-stock")
+    public ResponseEntity<ProductDTO> enableHotStock(@PathVariable Long id, @RequestParam(defaultValue = "8") int stripes) {
+        ProductDTO product = productService.setHotStock(id, stripes);
+        return ResponseEntity.ok(product);
+    }
+    
+    @DeleteMapping("/products/{id}/hot-stock")
+    public ResponseEntity<ProductDTO> disableHotStock(@PathVariable Long id) {
+        ProductDTO product = productService.setHotStock(id, null);
+        return ResponseEntity.ok(product);
+    }
+    
     @DeleteMapping("/products/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
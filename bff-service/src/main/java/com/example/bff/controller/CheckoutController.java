@@ -0,0 +1,28 @@
+package com.example.bff.controller;
+
+import com.example.bff.config.AuthenticatedUser;
+import com.example.bff.dto.CheckoutBootstrapDTO;
+import com.example.bff.service.CheckoutBootstrapService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/checkout")
+@Tag(name = "Checkout", description = "Checkout page APIs")
+public class CheckoutController {
+    
+    @Autowired
+    private CheckoutBootstrapService checkoutBootstrapService;
+    
+    @GetMapping("/bootstrap")
+    @Operation(summary = "Get cart, cart total, payment methods and user profile in one call")
+    public ResponseEntity<CheckoutBootstrapDTO> bootstrap(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(checkoutBootstrapService.bootstrap(user.getUserId()));
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.bff.controller;
 
 import com.example.bff.dto.CheckoutRequest;
+import com.example.bff.dto.CheckoutStatusDTO;
 import com.example.bff.dto.OrderDTO;
 import com.example.bff.service.OrderService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -25,6 +29,35 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    /**
+     * Create the order and return 202 without waiting for payment; follow progress through
+     * the Location (poll) or its /stream (Server-Sent Events)
+     */
+    @PostMapping("/checkout/async")
+    public ResponseEntity<CheckoutStatusDTO> checkoutAsync(@Valid @RequestBody CheckoutRequest request, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        CheckoutStatusDTO status = orderService.checkoutAsync(userId, request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + status.getOrderId() + "/checkout-status"))
+                .body(status);
+    }
+    
+    @GetMapping("/{orderId}/checkout-status")
+    public ResponseEntity<CheckoutStatusDTO> getCheckoutStatus(@PathVariable Long orderId, HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        return orderService.getCheckoutStatus(orderId, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(value = "/{orderId}/checkout-status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCheckoutStatus(@PathVariable Long orderId, HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        return orderService.streamCheckoutStatus(orderId, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping
     public ResponseEntity<List<OrderDTO>> getUserOrders(HttpServletRequest request) {
         Long userId = (Long) request.getAttribute("userId");
@@ -1,6 +1,9 @@
 package com.example.bff.controller;
 
 import com.example.bff.dto.ProductDTO;
+import com.example.bff.dto.ProductFilterDTO;
+import com.example.bff.dto.ProductPageDTO;
+import com.example.bff.dto.ProductSearchDTO;
 import com.example.bff.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,9 +22,39 @@ public class ProductController {
     private ProductService productService;
     
     @GetMapping
-    @Operation(summary = "Get all products")
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    @Operation(summary = "Get all products, or one keyset page when limit, cursor or sort is given")
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        if (limit == null && cursor == null && sort == null && direction == null) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        ProductPageDTO page = productService.getProductPage(sort, direction, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products by category, price band and minimum rating, with facet counts")
+    public ResponseEntity<ProductFilterDTO> filterProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.filterProducts(category, minPrice, maxPrice, minRating, sort, direction, cursor, limit));
+    }
+    
+    @GetMapping("/bestsellers")
+    @Operation(summary = "Best-selling products over the last hour (trending) or day, best first")
+    public ResponseEntity<List<ProductDTO>> getBestsellers(
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getBestsellers(window, limit));
     }
     
     @GetMapping("/{id}")
@@ -32,15 +65,39 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/bought-together")
+    @Operation(summary = "Products frequently bought together with this one")
+    public ResponseEntity<List<ProductDTO>> getBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getBoughtTogether(id, limit));
+    }
+    
     @GetMapping("/category/{category}")
-    @Operation(summary = "Get products by category")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    @Operation(summary = "Get products by category, or one keyset page with facet counts when limit, cursor or sort is given")
+    public ResponseEntity<?> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        if (limit == null && cursor == null && sort == null && direction == null) {
+            return ResponseEntity.ok(productService.getProductsByCategory(category));
+        }
+        ProductFilterDTO page = productService.filterProducts(category, null, null, null, sort, direction, cursor, limit);
+        return ResponseEntity.ok(page);
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search products")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String q) {
-        return ResponseEntity.ok(productService.searchProducts(q));
+    @Operation(summary = "Search products, best match first; pass page and/or size for one page with the total")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if (page == null && size == null) {
+            return ResponseEntity.ok(productService.searchProducts(q));
+        }
+        ProductSearchDTO result = productService.searchProducts(q, page, size);
+        return ResponseEntity.ok(result);
     }
 }
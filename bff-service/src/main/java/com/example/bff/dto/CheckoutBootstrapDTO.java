@@ -0,0 +1,33 @@
+package com.example.bff.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the checkout page needs in one response. A section whose downstream call
+ * failed or timed out is left null and listed in {@code errors}.
+ */
+public class CheckoutBootstrapDTO {
+    private List<CartItemDTO> items;
+    private Double cartTotal;
+    private List<Map<String, Object>> paymentMethods;
+    private Map<String, Object> user;
+    private Map<String, String> errors;
+    
+    public List<CartItemDTO> getItems() { return items; }
+    public void setItems(List<CartItemDTO> items) { this.items = items; }
+    
+    public Double getCartTotal() { return cartTotal; }
+    public void setCartTotal(Double cartTotal) { this.cartTotal = cartTotal; }
+    
+    public List<Map<String, Object>> getPaymentMethods() { return paymentMethods; }
+    public void setPaymentMethods(List<Map<String, Object>> paymentMethods) { this.paymentMethods = paymentMethods; }
+    
+    public Map<String, Object> getUser() { return user; }
+    public void setUser(Map<String, Object> user) { this.user = user; }
+    
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+    
+    public boolean isPartial() { return errors != null && !errors.isEmpty(); }
+}
@@ -0,0 +1,44 @@
+package com.example.bff.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an asynchronous checkout. {@code state} moves from PAYMENT_PROCESSING to one
+ * of the terminal states COMPLETED, PAYMENT_FAILED or PAYMENT_ERROR.
+ */
+public class CheckoutStatusDTO {
+    private Long orderId;
+    private String state;
+    private String orderStatus;
+    private Double totalAmount;
+    private String paymentType;
+    private String paymentStatus;
+    private String paymentTransactionId;
+    private LocalDateTime updatedAt;
+    
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    
+    public String getOrderStatus() { return orderStatus; }
+    public void setOrderStatus(String orderStatus) { this.orderStatus = orderStatus; }
+    
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+    
+    public String getPaymentType() { return paymentType; }
+    public void setPaymentType(String paymentType) { this.paymentType = paymentType; }
+    
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    
+    public String getPaymentTransactionId() { return paymentTransactionId; }
+    public void setPaymentTransactionId(String paymentTransactionId) { this.paymentTransactionId = paymentTransactionId; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public boolean isDone() { return !"PAYMENT_PROCESSING".equals(state); }
+}
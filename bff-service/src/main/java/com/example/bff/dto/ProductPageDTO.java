@@ -0,0 +1,23 @@
+package com.example.bff.dto;
+
+import java.util.List;
+
+public class ProductPageDTO {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private String sort;
+    private String direction;
+    
+    // Getters and Setters
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+}
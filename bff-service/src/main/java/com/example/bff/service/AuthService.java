@@ -5,6 +5,8 @@ import com.example.bff.dto.LoginResponse;
 import com.example.bff.dto.RegisterRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -17,7 +19,9 @@ public class AuthService {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("identityRestTemplate")
+    private RestTemplate restTemplate;
     
     @Value("${identity.service.url}")
     private String identityServiceUrl;
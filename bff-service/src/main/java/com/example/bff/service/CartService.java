@@ -2,20 +2,30 @@ package com.example.bff.service;
 
 import com.example.bff.dto.CartItemDTO;
 import com.example.bff.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CartService {
@@ -23,6 +33,7 @@ public class CartService {
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
     
     @Autowired
+    @Qualifier("cartRestTemplate")
     private RestTemplate restTemplate;
     
     @Autowired
@@ -31,26 +42,69 @@ public class CartService {
     @Value("${cart.service.url}")
     private String cartUrl;
     
+    @Value("${bff.cart.last-known.ttl:1h}")
+    private Duration lastKnownTtl;
+    
+    @Value("${bff.cart.last-known.max-users:10000}")
+    private long lastKnownMaxUsers;
+    
+    // Last successfully fetched cart per user, served only while the cart service is unavailable
+    private Cache<Long, List<CartItemDTO>> lastKnownCarts;
+    
+    @PostConstruct
+    void init() {
+        lastKnownCarts = Caffeine.newBuilder()
+                .expireAfterWrite(lastKnownTtl)
+                .maximumSize(lastKnownMaxUsers)
+                .build();
+    }
+    
     public List<CartItemDTO> getCartItems(Long userId) {
-        logger.info("Fetching cart items for user: {}", userId);
         try {
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                cartUrl + "/api/cart/user/" + userId,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-            );
-            
-            List<Map<String, Object>> items = response.getBody();
-            if (items == null) return new ArrayList<>();
-            
-            return items.stream().map(item -> enrichCartItem(mapToCartItemDTO(item))).toList();
+            return fetchCartItems(userId);
         } catch (Exception e) {
+            List<CartItemDTO> lastKnown = lastKnownCarts.getIfPresent(userId);
+            if (lastKnown != null) {
+                logger.warn("Cart service unavailable ({}), serving last known cart for user {}", e.getMessage(), userId);
+                return lastKnown;
+            }
             logger.error("Error fetching cart: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Fetch and enrich the user's cart, propagating downstream failures so callers can
+     * tell an unavailable cart apart from an empty one
+     */
+    public List<CartItemDTO> fetchCartItems(Long userId) {
+        List<CartItemDTO> cartItems = enrichCartItems(fetchCartLines(userId), productService::getProductsByIds);
+        lastKnownCarts.put(userId, cartItems);
+        return cartItems;
+    }
+    
+    /**
+     * The user's cart priced for placing an order. Unlike {@link #fetchCartItems}, prices never
+     * come from last known product copies: if inventory cannot confirm them this fails with 503.
+     */
+    public List<CartItemDTO> fetchCartItemsForCheckout(Long userId) {
+        return enrichCartItems(fetchCartLines(userId), productService::getProductsForCheckout);
+    }
+    
+    private List<CartItemDTO> fetchCartLines(Long userId) {
+        logger.info("Fetching cart items for user: {}", userId);
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+            cartUrl + "/api/cart/user/" + userId,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        
+        List<Map<String, Object>> items = response.getBody();
+        if (items == null) return new ArrayList<>();
+        return items.stream().map(this::mapToCartItemDTO).toList();
+    }
+    
     public CartItemDTO addToCart(Long userId, Long productId, Integer quantity) {
         logger.info("Adding to cart - user: {}, product: {}, qty: {}", userId, productId, quantity);
         
@@ -66,14 +120,16 @@ public class CartService {
             (Class<Map<String, Object>>) (Class<?>) Map.class
         );
         
+        lastKnownCarts.invalidate(userId);
         return enrichCartItem(mapToCartItemDTO(response.getBody()));
     }
     
-    public CartItemDTO updateCartItem(Long itemId, Integer quantity) {
+    public CartItemDTO updateCartItem(Long userId, Long itemId, Integer quantity) {
         logger.info("Updating cart item: {} to qty: {}", itemId, quantity);
         
         Map<String, Object> request = Map.of("quantity", quantity);
         restTemplate.put(cartUrl + "/api/cart/" + itemId, request);
+        lastKnownCarts.invalidate(userId);
         
         // Return updated item
         CartItemDTO item = new CartItemDTO();
@@ -82,18 +138,35 @@ public class CartService {
         return item;
     }
     
-    public void removeFromCart(Long itemId) {
+    public void removeFromCart(Long userId, Long itemId) {
         logger.info("Removing cart item: {}", itemId);
         restTemplate.delete(cartUrl + "/api/cart/" + itemId);
+        lastKnownCarts.invalidate(userId);
     }
     
     public void clearCart(Long userId) {
         logger.info("Clearing cart for user: {}", userId);
         restTemplate.delete(cartUrl + "/api/cart/user/" + userId);
+        lastKnownCarts.invalidate(userId);
     }
     
     public Double getCartTotal(Long userId) {
-        List<CartItemDTO> items = getCartItems(userId);
+        return calculateTotal(getCartItems(userId));
+    }
+    
+    /**
+     * Total of the cart's lines. A line whose product could not be priced fails the whole
+     * total with 409 rather than being left out, so a cart is never shown or ordered for
+     * less than it costs.
+     */
+    public Double calculateTotal(List<CartItemDTO> items) {
+        items.stream()
+                .filter(item -> item.getPrice() == null)
+                .findFirst()
+                .ifPresent(item -> {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Price unavailable for product " + item.getProductId());
+                });
         return items.stream()
                 .mapToDouble(item -> item.getPrice() * item.getQuantity())
                 .sum();
@@ -108,15 +181,28 @@ public class CartService {
         return dto;
     }
     
+    private List<CartItemDTO> enrichCartItems(List<CartItemDTO> items,
+                                              Function<Collection<Long>, Map<Long, ProductDTO>> lookup) {
+        if (items.isEmpty()) return items;
+        
+        // One batch lookup for the whole cart instead of one inventory call per line
+        Set<Long> productIds = items.stream().map(CartItemDTO::getProductId).collect(Collectors.toSet());
+        Map<Long, ProductDTO> products = lookup.apply(productIds);
+        items.forEach(item -> applyProduct(item, products.get(item.getProductId())));
+        return items;
+    }
+    
     private CartItemDTO enrichCartItem(CartItemDTO item) {
-        Optional<ProductDTO> product = productService.getProductById(item.getProductId());
-        if (product.isPresent()) {
-            ProductDTO p = product.get();
+        applyProduct(item, productService.getProductById(item.getProductId()).orElse(null));
+        return item;
+    }
+    
+    private void applyProduct(CartItemDTO item, ProductDTO p) {
+        if (p != null) {
             item.setProductName(p.getName());
             item.setPrice(p.getPrice());
             item.setImageUrl(p.getImageUrl());
             item.setStockQuantity(p.getStockQuantity());
         }
-        return item;
     }
 }
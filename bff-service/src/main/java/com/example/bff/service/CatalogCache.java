@@ -0,0 +1,206 @@
+package com.example.bff.service;
+
+import com.example.bff.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process near-cache of inventory's catalog. Holds individual products and the full
+ * product list with a per-entry TTL and a size bound; admin writes invalidate it directly.
+ * Alongside the fresh entries it keeps the last known good copy of each, without a TTL,
+ * for read paths to fall back on while inventory is unavailable. Stock levels are kept
+ * current between refreshes by {@link StockEventListener}.
+ */
+@Component
+public class CatalogCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+    private static final String ALL_PRODUCTS = "all";
+    
+    @Value("${bff.catalog.cache.ttl:30s}")
+    private Duration ttl;
+    
+    @Value("${bff.catalog.cache.max-products:10000}")
+    private long maxProducts;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<Long, ProductDTO> products;
+    private Cache<String, List<ProductDTO>> catalog;
+    private Cache<Long, ProductDTO> lastKnownProducts;
+    private final AtomicReference<List<ProductDTO>> lastKnownCatalog = new AtomicReference<>();
+    
+    @PostConstruct
+    void init() {
+        products = Caffeine.newBuilder()
+                .expireAfter(new ExpireAfterWrite<Long, ProductDTO>(ttl))
+                .maximumSize(maxProducts)
+                .recordStats()
+                .build();
+        catalog = Caffeine.newBuilder()
+                .expireAfter(new ExpireAfterWrite<String, List<ProductDTO>>(ttl))
+                .maximumSize(1)
+                .recordStats()
+                .build();
+        lastKnownProducts = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "bff.catalog.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "bff.catalog.all");
+    }
+    
+    public ProductDTO getProduct(Long id) {
+        return products.getIfPresent(id);
+    }
+    
+    public void putProduct(ProductDTO product) {
+        products.put(product.getId(), product);
+        lastKnownProducts.put(product.getId(), product);
+    }
+    
+    public List<ProductDTO> getAllProducts() {
+        return catalog.getIfPresent(ALL_PRODUCTS);
+    }
+    
+    /**
+     * Cache the full catalog and seed the per-product entries from it, so product detail
+     * pages reached from a listing are served without another inventory call.
+     */
+    public void putAllProducts(List<ProductDTO> all) {
+        catalog.put(ALL_PRODUCTS, all);
+        lastKnownCatalog.set(all);
+        all.forEach(this::putProduct);
+    }
+    
+    public ProductDTO getLastKnownProduct(Long id) {
+        return lastKnownProducts.getIfPresent(id);
+    }
+    
+    public List<ProductDTO> getLastKnownCatalog() {
+        return lastKnownCatalog.get();
+    }
+    
+    public void invalidateProduct(Long id) {
+        logger.debug("Invalidating cached product {}", id);
+        products.invalidate(id);
+        catalog.invalidate(ALL_PRODUCTS);
+    }
+    
+    /**
+     * Forget a deleted product everywhere, including the last known good copies, so a
+     * fallback never resurrects it.
+     */
+    public void removeProduct(Long id) {
+        invalidateProduct(id);
+        lastKnownProducts.invalidate(id);
+        lastKnownCatalog.updateAndGet(all -> all == null ? null
+                : all.stream().filter(p -> !id.equals(p.getId())).toList());
+    }
+    
+    public void invalidateCatalog() {
+        logger.debug("Invalidating cached catalog");
+        catalog.invalidate(ALL_PRODUCTS);
+    }
+    
+    /**
+     * Drop every fresh entry, e.g. after missing stock changes. Last known good copies stay
+     * for fallback.
+     */
+    public void invalidateAll() {
+        logger.debug("Invalidating all cached products");
+        products.invalidateAll();
+        catalog.invalidateAll();
+    }
+    
+    /**
+     * Apply stock levels pushed by inventory's stock feed to every cached copy of those
+     * products, fresh and last known, without resetting their TTL. A null level means the
+     * product no longer exists. Cached products are never modified: readers may be
+     * serializing or indexing them, so each changed product is replaced by an updated copy.
+     */
+    public void applyStock(Map<Long, Integer> levels) {
+        levels.forEach((id, stock) -> {
+            if (stock == null) {
+                removeProduct(id);
+            } else {
+                replaceKeepingExpiry(products, id, product -> withStock(product, stock));
+                lastKnownProducts.asMap().computeIfPresent(id, (key, product) -> withStock(product, stock));
+            }
+        });
+        replaceKeepingExpiry(catalog, ALL_PRODUCTS, all -> withStock(all, levels));
+        lastKnownCatalog.updateAndGet(all -> all == null ? null : withStock(all, levels));
+    }
+    
+    private static <K, V> void replaceKeepingExpiry(Cache<K, V> cache, K key, UnaryOperator<V> update) {
+        Policy.VarExpiration<K, V> expiration = cache.policy().expireVariably().orElseThrow();
+        expiration.getExpiresAfter(key).ifPresent(remaining ->
+                expiration.compute(key, (k, value) -> value == null ? null : update.apply(value), remaining));
+    }
+    
+    private static List<ProductDTO> withStock(List<ProductDTO> list, Map<Long, Integer> levels) {
+        return list.stream()
+                .map(product -> {
+                    Integer stock = levels.get(product.getId());
+                    return stock != null ? withStock(product, stock) : product;
+                })
+                .toList();
+    }
+    
+    private static ProductDTO withStock(ProductDTO product, int stock) {
+        ProductDTO copy = new ProductDTO();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setStockQuantity(stock);
+        copy.setCategory(product.getCategory());
+        copy.setImageUrl(product.getImageUrl());
+        copy.setRating(product.getRating());
+        copy.setReviewCount(product.getReviewCount());
+        return copy;
+    }
+    
+    /**
+     * Expire entries a fixed time after they were last put, like {@code expireAfterWrite},
+     * but as a variable policy so stock updates can replace an entry and keep its expiry
+     */
+    private static final class ExpireAfterWrite<K, V> implements Expiry<K, V> {
+        private final long ttlNanos;
+        
+        private ExpireAfterWrite(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+        
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return ttlNanos;
+        }
+        
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return ttlNanos;
+        }
+        
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
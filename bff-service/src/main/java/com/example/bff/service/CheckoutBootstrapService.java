@@ -0,0 +1,102 @@
+package com.example.bff.service;
+
+import com.example.bff.dto.CartItemDTO;
+import com.example.bff.dto.CheckoutBootstrapDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the checkout page in one parallel wave: cart (with product enrichment), saved
+ * payment methods and the user profile are fetched concurrently, each with its own
+ * timeout, so one slow downstream degrades its section instead of the whole page.
+ */
+@Service
+public class CheckoutBootstrapService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutBootstrapService.class);
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @Autowired
+    private UserService userService;
+    
+    // Boot's task executor: a bounded pool, or virtual threads when spring.threads.virtual.enabled
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor executor;
+    
+    @Value("${bff.checkout.bootstrap.branch-timeout:2s}")
+    private Duration branchTimeout;
+    
+    public CheckoutBootstrapDTO bootstrap(Long userId) {
+        logger.info("Bootstrapping checkout for user: {}", userId);
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        
+        CompletableFuture<List<CartItemDTO>> cart =
+                branch("cart", userId, errors, () -> cartService.fetchCartItems(userId));
+        CompletableFuture<List<Map<String, Object>>> paymentMethods =
+                branch("paymentMethods", userId, errors, () -> paymentService.getUserPaymentMethods(userId));
+        CompletableFuture<Map<String, Object>> user =
+                branch("user", userId, errors, () -> userService.getUserProfile(userId));
+        
+        // Every branch completes (normally or with null) within branchTimeout
+        CompletableFuture.allOf(cart, paymentMethods, user).join();
+        
+        CheckoutBootstrapDTO result = new CheckoutBootstrapDTO();
+        List<CartItemDTO> items = cart.join();
+        if (items != null) {
+            result.setItems(items);
+            try {
+                result.setCartTotal(cartService.calculateTotal(items));
+            } catch (ResponseStatusException e) {
+                // Items stay visible; the missing total tells the page the cart can't be ordered yet
+                errors.put("cartTotal", e.getReason());
+            }
+        }
+        result.setPaymentMethods(paymentMethods.join());
+        result.setUser(user.join());
+        result.setErrors(new TreeMap<>(errors));
+        return result;
+    }
+    
+    private <T> CompletableFuture<T> branch(String section, Long userId, Map<String, String> errors, Supplier<T> call) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future
+                .orTimeout(branchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    boolean timedOut = cause instanceof TimeoutException;
+                    logger.warn("Checkout bootstrap: {} unavailable for user {}: {}", section, userId,
+                            timedOut ? "timed out after " + branchTimeout.toMillis() + "ms" : cause.getMessage());
+                    errors.put(section, timedOut ? "Timed out" : "Unavailable");
+                    return null;
+                });
+    }
+}
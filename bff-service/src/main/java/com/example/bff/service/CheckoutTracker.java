@@ -0,0 +1,165 @@
+package com.example.bff.service;
+
+import com.example.bff.dto.CheckoutStatusDTO;
+import com.example.bff.dto.OrderDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Progress of asynchronous checkouts, kept in memory for {@code bff.checkout.tracker.ttl}
+ * after the last update. Clients poll {@link #get} or subscribe to a Server-Sent Events
+ * stream that receives a {@code status} event on every change and completes once the
+ * checkout reaches a terminal state, or stops being tracked.
+ */
+@Component
+public class CheckoutTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutTracker.class);
+    
+    @Value("${bff.checkout.tracker.ttl:15m}")
+    private Duration ttl;
+    
+    @Value("${bff.checkout.stream-timeout:60s}")
+    private Duration streamTimeout;
+    
+    private Cache<Long, TrackedCheckout> checkouts;
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        checkouts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(100_000)
+                .removalListener((Long orderId, TrackedCheckout tracked, RemovalCause cause) -> {
+                    // An expired or evicted checkout will never reach a terminal status here
+                    if (orderId != null && cause.wasEvicted()) {
+                        List<SseEmitter> emitters = subscribers.remove(orderId);
+                        if (emitters != null) emitters.forEach(SseEmitter::complete);
+                    }
+                })
+                .build();
+    }
+    
+    public CheckoutStatusDTO start(Long userId, OrderDTO order, String paymentType) {
+        CheckoutStatusDTO status = snapshot(order, paymentType, "PAYMENT_PROCESSING");
+        checkouts.put(order.getId(), new TrackedCheckout(userId, status));
+        return status;
+    }
+    
+    public void complete(Long userId, OrderDTO order, String paymentType) {
+        String state;
+        if ("PAYMENT_FAILED".equals(order.getStatus()) || "FAILED".equals(order.getPaymentStatus())) {
+            state = "PAYMENT_FAILED";
+        } else if ("ERROR".equals(order.getPaymentStatus())) {
+            state = "PAYMENT_ERROR";
+        } else {
+            state = "COMPLETED";
+        }
+        CheckoutStatusDTO status = snapshot(order, paymentType, state);
+        checkouts.put(order.getId(), new TrackedCheckout(userId, status));
+        
+        List<SseEmitter> emitters = subscribers.remove(order.getId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> sendAndComplete(emitter, status));
+        }
+    }
+    
+    /**
+     * Current status of a tracked checkout, visible only to the user who placed it
+     */
+    public Optional<CheckoutStatusDTO> get(Long orderId, Long userId) {
+        TrackedCheckout tracked = checkouts.getIfPresent(orderId);
+        if (tracked == null || !tracked.userId().equals(userId)) return Optional.empty();
+        return Optional.of(tracked.status());
+    }
+    
+    /**
+     * Stream a tracked checkout's status. The current status is sent immediately; the stream
+     * then waits for the terminal status, or completes at once if the checkout is already done.
+     */
+    public Optional<SseEmitter> subscribe(Long orderId, Long userId) {
+        if (get(orderId, userId).isEmpty()) return Optional.empty();
+        
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        subscribers.compute(orderId, (id, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(orderId, emitter));
+        emitter.onError(e -> unsubscribe(orderId, emitter));
+        emitter.onTimeout(() -> {
+            unsubscribe(orderId, emitter);
+            emitter.complete();
+        });
+        
+        // Read after registering, so a completion racing with this subscription is never missed
+        CheckoutStatusDTO current = get(orderId, userId).orElse(null);
+        if (current == null) {
+            unsubscribe(orderId, emitter);
+            emitter.complete();
+        } else if (current.isDone()) {
+            unsubscribe(orderId, emitter);
+            sendAndComplete(emitter, current);
+        } else {
+            send(emitter, current);
+        }
+        return Optional.of(emitter);
+    }
+    
+    // Drops the order's entry with its last subscriber, so finished streams leave nothing behind
+    private void unsubscribe(Long orderId, SseEmitter emitter) {
+        subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+    
+    private void sendAndComplete(SseEmitter emitter, CheckoutStatusDTO status) {
+        if (send(emitter, status)) {
+            emitter.complete();
+        }
+    }
+    
+    private boolean send(SseEmitter emitter, CheckoutStatusDTO status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping checkout stream for order {}: {}", status.getOrderId(), e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+    
+    private CheckoutStatusDTO snapshot(OrderDTO order, String paymentType, String state) {
+        CheckoutStatusDTO status = new CheckoutStatusDTO();
+        status.setOrderId(order.getId());
+        status.setState(state);
+        status.setOrderStatus(order.getStatus());
+        status.setTotalAmount(order.getTotalAmount());
+        status.setPaymentType(paymentType);
+        status.setPaymentStatus(order.getPaymentStatus());
+        status.setPaymentTransactionId(order.getPaymentTransactionId());
+        status.setUpdatedAt(LocalDateTime.now());
+        return status;
+    }
+    
+    private record TrackedCheckout(Long userId, CheckoutStatusDTO status) {}
+}
@@ -2,26 +2,38 @@ package com.example.bff.service;
 
 import com.example.bff.dto.CartItemDTO;
 import com.example.bff.dto.CheckoutRequest;
+import com.example.bff.dto.CheckoutStatusDTO;
 import com.example.bff.dto.OrderDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class OrderService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("orderRestTemplate")
+    private RestTemplate restTemplate;
+    
+    @Autowired
+    @Qualifier("paymentRestTemplate")
+    private RestTemplate paymentRestTemplate;
     
     @Value("${order.service.url}")
     private String orderServiceUrl;
@@ -32,19 +44,79 @@ public class OrderService {
     @Autowired
     private CartService cartService;
     
+    @Autowired
+    private CheckoutTracker checkoutTracker;
+    
+    @Autowired
+    private PaymentExecutor paymentExecutor;
+    
     public OrderDTO checkout(Long userId, CheckoutRequest request) {
+        OrderDTO order = createOrder(userId, request);
+        settlePayment(userId, order, request);
+        return order;
+    }
+    
+    /**
+     * Create the order and return straight away; payment runs in the background on the
+     * {@link PaymentExecutor} and its progress is published through {@link CheckoutTracker}.
+     * When the executor is full the checkout is refused with 503 before any order is created.
+     */
+    public CheckoutStatusDTO checkoutAsync(Long userId, CheckoutRequest request) {
+        if (!paymentExecutor.tryReserve()) {
+            logger.warn("Background payments saturated, refusing checkout for user {}", userId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many checkouts in progress, try again shortly");
+        }
+        OrderDTO order;
+        try {
+            order = createOrder(userId, request);
+        } catch (RuntimeException e) {
+            paymentExecutor.release();
+            throw e;
+        }
+        if (order == null) {
+            paymentExecutor.release();
+            throw new RuntimeException("Order could not be created");
+        }
+        CheckoutStatusDTO accepted = checkoutTracker.start(userId, order, request.getPaymentType());
+        
+        paymentExecutor.execute(() -> {
+            try {
+                settlePayment(userId, order, request);
+            } finally {
+                checkoutTracker.complete(userId, order, request.getPaymentType());
+            }
+        });
+        return accepted;
+    }
+    
+    public Optional<CheckoutStatusDTO> getCheckoutStatus(Long orderId, Long userId) {
+        return checkoutTracker.get(orderId, userId);
+    }
+    
+    public Optional<SseEmitter> streamCheckoutStatus(Long orderId, Long userId) {
+        return checkoutTracker.subscribe(orderId, userId);
+    }
+    
+    /**
+     * Create the order from the user's current cart, without taking payment. The order's
+     * total is the cart total.
+     */
+    public OrderDTO createOrder(Long userId, CheckoutRequest request) {
         logger.info("Processing checkout for user: {}", userId);
         
-        // Fetch cart items from cart service
-        List<CartItemDTO> cartItems = cartService.getCartItems(userId);
+        // Never order from the last known cart or last known prices: either may be long outdated
+        List<CartItemDTO> cartItems;
+        try {
+            cartItems = cartService.fetchCartItemsForCheckout(userId);
+        } catch (HttpServerErrorException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cart service unavailable", e);
+        }
         if (cartItems == null || cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
         
-        // Calculate total
-        double total = cartItems.stream()
-                .mapToDouble(item -> item.getPrice() * item.getQuantity())
-                .sum();
+        // Calculate total; rejects the cart if any line is unpriced
+        double total = cartService.calculateTotal(cartItems);
         
         // Add cart items to the request
         request.setCartItems(cartItems);
@@ -63,13 +135,23 @@ public class OrderService {
         );
         
         OrderDTO order = response.getBody();
-        
+        if (order != null && order.getTotalAmount() == null) {
+            order.setTotalAmount(total);
+        }
+        return order;
+    }
+    
+    /**
+     * Take payment for a created order if a payment type was requested, recording the
+     * payment outcome on {@code order} and marking the order PAYMENT_FAILED when declined
+     */
+    public void settlePayment(Long userId, OrderDTO order, CheckoutRequest request) {
         // Process payment if payment type is specified
         if (request.getPaymentType() != null && order != null) {
             logger.info("Processing payment for order: {} type: {}", order.getId(), request.getPaymentType());
             
             try {
-                Map<String, Object> paymentResult = processPayment(userId, order.getId(), total, request);
+                Map<String, Object> paymentResult = processPayment(userId, order.getId(), order.getTotalAmount(), request);
                 
                 if (paymentResult != null) {
                     String paymentStatus = (String) paymentResult.get("status");
@@ -91,8 +173,6 @@ public class OrderService {
                 order.setPaymentStatus("ERROR");
             }
         }
-        
-        return order;
     }
     
     private Map<String, Object> processPayment(Long userId, Long orderId, Double amount, CheckoutRequest request) {
@@ -122,7 +202,7 @@ public class OrderService {
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(paymentRequest, headers);
         
-        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+        ResponseEntity<Map<String, Object>> response = paymentRestTemplate.exchange(
             paymentServiceUrl + "/api/payments/process",
             HttpMethod.POST,
             entity,
@@ -0,0 +1,121 @@
+package com.example.bff.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the payments of asynchronous checkouts on threads of their own. A payment holds its
+ * thread for the whole gateway call, so on the shared application task executor a burst of
+ * checkouts would queue checkout bootstrap branches behind payments until they time out.
+ * <p>
+ * With virtual threads enabled (spring.threads.virtual.enabled, Java 21+) every payment gets
+ * its own virtual thread; otherwise they share a pool of {@code bff.checkout.payment.threads}.
+ * Either way at most {@code bff.checkout.payment.max-pending} payments are accepted at once,
+ * running or queued. Callers reserve a slot with {@link #tryReserve} before creating the order,
+ * so a saturated checkout is refused up front instead of leaving an order without its payment.
+ */
+@Component
+public class PaymentExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExecutor.class);
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${bff.checkout.payment.threads:64}")
+    private int threads;
+    
+    @Value("${bff.checkout.payment.max-pending:2000}")
+    private int maxPending;
+    
+    private Semaphore slots;
+    private TaskExecutor executor;
+    private ThreadPoolTaskExecutor pool;
+    
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(maxPending);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = new VirtualThreadTaskExecutor("bff-payment-");
+            logger.info("Background payments run on virtual threads, at most {} pending", maxPending);
+        } else {
+            // The slots bound the queue, so the pool never has to reject a reserved payment
+            pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(threads);
+            pool.setMaxPoolSize(threads);
+            pool.setThreadNamePrefix("bff-payment-");
+            // Accepted payments still settle on a graceful shutdown
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.setAwaitTerminationSeconds(30);
+            pool.initialize();
+            executor = pool;
+            logger.info("Background payments run on {} threads, at most {} pending", threads, maxPending);
+        }
+        Gauge.builder("bff.checkout.payments.pending", this::pending)
+                .description("Background checkout payments running or queued")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Reserve a slot for one payment; false when {@code bff.checkout.payment.max-pending}
+     * payments are already running or queued
+     */
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+    
+    /**
+     * Give back a reserved slot that will not be used, e.g. because the order failed
+     */
+    public void release() {
+        slots.release();
+    }
+    
+    /**
+     * Run {@code payment} in a slot reserved with {@link #tryReserve}; the slot is freed when
+     * the payment finishes
+     */
+    public void execute(Runnable payment) {
+        try {
+            executor.execute(() -> {
+                try {
+                    payment.run();
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Only once shut down
+            slots.release();
+            throw e;
+        }
+    }
+    
+    int pending() {
+        return maxPending - slots.availablePermits();
+    }
+}
@@ -2,6 +2,8 @@ package com.example.bff.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
@@ -16,7 +18,9 @@ public class PaymentService {
     
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("paymentRestTemplate")
+    private RestTemplate restTemplate;
     
     @Value("${payment.service.url}")
     private String paymentServiceUrl;
@@ -0,0 +1,139 @@
+package com.example.bff.service;
+
+import com.example.bff.dto.ProductDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fallback for product search while inventory's ranked search is unreachable.
+ * Tokenized inverted index over product names and descriptions. Terms are kept sorted so a
+ * query token matches every indexed term it prefixes; results are ordered by relevance, with
+ * name matches outweighing description matches and whole-term matches outweighing prefixes.
+ * Every query token must match for a product to be returned.
+ * <p>
+ * The index is built lazily from the catalog passed to {@link #search}, and rebuilt only when
+ * a search brings a different catalog, so it costs nothing while inventory is reachable.
+ */
+@Component
+public class ProductSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // term -> (productId -> field weight)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, ProductDTO> products = new HashMap<>();
+    private List<ProductDTO> indexedCatalog;
+    
+    /**
+     * Search {@code catalog}, re-indexing it first unless it is the catalog indexed last.
+     * Callers pass the cached catalog list, which is replaced rather than modified when it
+     * changes, so identity tells whether the index is current.
+     */
+    public List<ProductDTO> search(String query, List<ProductDTO> catalog) {
+        List<String> queryTokens = tokenize(query);
+        
+        lock.readLock().lock();
+        if (catalog != indexedCatalog) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (catalog != indexedCatalog) {
+                    rebuild(catalog);
+                }
+                // Downgrade, so the search below runs against the index just built
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            if (queryTokens.isEmpty()) {
+                return new ArrayList<>(products.values());
+            }
+            
+            Map<Long, Integer> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) return new ArrayList<>();
+            }
+            
+            Map<Long, Integer> finalScores = scores;
+            return finalScores.keySet().stream()
+                    .map(products::get)
+                    .sorted(Comparator.<ProductDTO>comparingInt(p -> finalScores.get(p.getId())).reversed()
+                            .thenComparing(ProductDTO::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Callers hold the write lock
+    private void rebuild(List<ProductDTO> catalog) {
+        postings.clear();
+        products.clear();
+        catalog.forEach(this::add);
+        indexedCatalog = catalog;
+        logger.debug("Search index rebuilt with {} products", catalog.size());
+    }
+    
+    private Map<Long, Integer> scoreToken(String token) {
+        Map<Long, Integer> tokenScores = new HashMap<>();
+        NavigableMap<String, Map<Long, Integer>> matches = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        matches.forEach((term, posting) -> {
+            int bonus = term.equals(token) ? EXACT_MATCH_BONUS : 1;
+            posting.forEach((id, weight) -> tokenScores.merge(id, weight * bonus, Math::max));
+        });
+        return tokenScores;
+    }
+    
+    private void add(ProductDTO product) {
+        products.put(product.getId(), product);
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(product.getName()).forEach(t -> weights.merge(t, NAME_WEIGHT, Math::max));
+        tokenize(product.getDescription()).forEach(t -> weights.merge(t, DESCRIPTION_WEIGHT, Math::max));
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, k -> new HashMap<>()).put(product.getId(), weight));
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,83 +1,332 @@
 package com.example.bff.service;
 
 import com.example.bff.dto.ProductDTO;
+import com.example.bff.dto.ProductFilterDTO;
+import com.example.bff.dto.ProductPageDTO;
+import com.example.bff.dto.ProductSearchDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    private static final String ALL_PRODUCTS = "all";
+    // Largest page inventory returns; the unpaged search route shows this many best matches
+    private static final int SEARCH_RESULTS_LIMIT = 200;
+    private static final int CATEGORY_PAGE_SIZE = 200;
     
     @Autowired
+    @Qualifier("inventoryRestTemplate")
     private RestTemplate restTemplate;
     
+    @Autowired
+    @Qualifier("inventoryImportRestTemplate")
+    private RestTemplate importRestTemplate;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Value("${inventory.service.url}")
     private String inventoryUrl;
     
+    // Concurrent cache misses for the same key share one inventory call; single and batch
+    // product lookups share the same in-flight map, keyed by product ID
+    private SingleFlight<String, List<ProductDTO>> catalogFlights;
+    private SingleFlight<Long, ProductDTO> productFlights;
+    
+    @PostConstruct
+    void init() {
+        catalogFlights = new SingleFlight<>("catalog", meterRegistry);
+        productFlights = new SingleFlight<>("product", meterRegistry);
+    }
+    
     public List<ProductDTO> getAllProducts() {
-        logger.info("Fetching all products from inventory service");
+        List<ProductDTO> cached = catalogCache.getAllProducts();
+        if (cached != null) return cached;
+        
         try {
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                inventoryUrl + "/api/products",
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-            );
-            
-            List<Map<String, Object>> products = response.getBody();
-            if (products == null) return new ArrayList<>();
-            
-            return products.stream().map(this::mapToProductDTO).toList();
+            return catalogFlights.execute(ALL_PRODUCTS, this::fetchAllProducts);
         } catch (Exception e) {
+            List<ProductDTO> lastKnown = catalogCache.getLastKnownCatalog();
+            if (lastKnown != null) {
+                logger.warn("Inventory unavailable ({}), serving last known catalog of {} products",
+                        e.getMessage(), lastKnown.size());
+                return lastKnown;
+            }
             logger.error("Error fetching products: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
     
+    /**
+     * One keyset page of the catalog, straight from inventory. Pages are not cached, but the
+     * products on them warm the per-product cache.
+     */
+    public ProductPageDTO getProductPage(String sort, String direction, String cursor, Integer limit) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/products/page");
+        Map<String, Object> body = fetchPage(withPaging(uri, sort, direction, cursor, limit));
+        ProductPageDTO page = new ProductPageDTO();
+        fillPage(page, body);
+        return page;
+    }
+    
+    /**
+     * Filtered page plus facet counts, computed by inventory from its precomputed facet index
+     */
+    @SuppressWarnings("unchecked")
+    public ProductFilterDTO filterProducts(String category, Double minPrice, Double maxPrice, Double minRating,
+                                           String sort, String direction, String cursor, Integer limit) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/products/filter")
+            .queryParamIfPresent("category", Optional.ofNullable(category))
+            .queryParamIfPresent("minPrice", Optional.ofNullable(minPrice))
+            .queryParamIfPresent("maxPrice", Optional.ofNullable(maxPrice))
+            .queryParamIfPresent("minRating", Optional.ofNullable(minRating));
+        Map<String, Object> body = fetchPage(withPaging(uri, sort, direction, cursor, limit));
+        ProductFilterDTO result = new ProductFilterDTO();
+        fillPage(result, body);
+        if (body != null) {
+            result.setTotal(((Number) body.getOrDefault("total", 0)).intValue());
+            result.setCategories((Map<String, Integer>) body.get("categories"));
+            result.setPriceRanges((Map<String, Integer>) body.get("priceRanges"));
+            result.setRatings((Map<String, Integer>) body.get("ratings"));
+        }
+        return result;
+    }
+    
     public Optional<ProductDTO> getProductById(Long id) {
-        logger.info("Fetching product by id: {}", id);
+        ProductDTO cached = catalogCache.getProduct(id);
+        if (cached != null) return Optional.of(cached);
+        
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                inventoryUrl + "/api/products/" + id,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-            
-            Map<String, Object> product = response.getBody();
-            if (product == null) return Optional.empty();
-            
-            return Optional.of(mapToProductDTO(product));
+            return Optional.ofNullable(productFlights.execute(id, () -> fetchProduct(id)));
+        } catch (HttpClientErrorException e) {
+            logger.error("Error fetching product {}: {}", id, e.getMessage());
+            return Optional.empty();
         } catch (Exception e) {
+            ProductDTO lastKnown = catalogCache.getLastKnownProduct(id);
+            if (lastKnown != null) {
+                logger.warn("Inventory unavailable ({}), serving last known product {}", e.getMessage(), id);
+                return Optional.of(lastKnown);
+            }
             logger.error("Error fetching product {}: {}", id, e.getMessage());
             return Optional.empty();
         }
     }
     
+    /**
+     * Fetch many products keyed by product ID. Cached products are served locally and the
+     * rest come from inventory in a single round trip; unknown IDs are absent from the result.
+     * While inventory is unavailable, last known copies stand in for the rest.
+     */
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids) {
+        return getProductsByIds(ids, true);
+    }
+    
+    /**
+     * Like {@link #getProductsByIds(Collection)}, but for pricing an order: last known copies
+     * have no TTL and may carry long outdated prices, so if inventory cannot be reached this
+     * fails with 503 instead
+     */
+    public Map<Long, ProductDTO> getProductsForCheckout(Collection<Long> ids) {
+        return getProductsByIds(ids, false);
+    }
+    
+    private Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids, boolean lastKnownAllowed) {
+        Map<Long, ProductDTO> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            ProductDTO cached = catalogCache.getProduct(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return result;
+        
+        try {
+            result.putAll(productFlights.executeAll(missing, this::fetchProducts));
+            return result;
+        } catch (Exception e) {
+            logger.error("Error fetching products {}: {}", missing, e.getMessage());
+            if (!lastKnownAllowed) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Product prices unavailable", e);
+            }
+            for (Long id : missing) {
+                ProductDTO lastKnown = catalogCache.getLastKnownProduct(id);
+                if (lastKnown != null) {
+                    result.put(id, lastKnown);
+                }
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Every product in {@code category}, read from inventory's filter API one keyset page at a
+     * time, so only the category is loaded rather than the whole catalog. If inventory cannot
+     * be reached, the cached or last known catalog is filtered instead.
+     */
     public List<ProductDTO> getProductsByCategory(String category) {
-        return getAllProducts().stream()
-                .filter(p -> category.equalsIgnoreCase(p.getCategory()))
-                .toList();
+        List<ProductDTO> products = new ArrayList<>();
+        String cursor = null;
+        try {
+            do {
+                ProductFilterDTO page = filterProducts(category, null, null, null, null, null, cursor, CATEGORY_PAGE_SIZE);
+                products.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            return products;
+        } catch (HttpClientErrorException e) {
+            throw e;
+        } catch (Exception e) {
+            List<ProductDTO> catalog = Optional.ofNullable(catalogCache.getAllProducts())
+                    .orElseGet(catalogCache::getLastKnownCatalog);
+            if (catalog == null) {
+                logger.error("Error fetching category {}: {}", category, e.getMessage());
+                return new ArrayList<>();
+            }
+            logger.warn("Inventory unavailable ({}), filtering category {} from the cached catalog", e.getMessage(), category);
+            return catalog.stream()
+                    .filter(p -> category.equalsIgnoreCase(p.getCategory()))
+                    .toList();
+        }
     }
     
+    /**
+     * Best matches for {@code query} from inventory's ranked search. If inventory cannot be
+     * reached, falls back to the local index over the cached catalog.
+     */
     public List<ProductDTO> searchProducts(String query) {
-        return getAllProducts().stream()
-                .filter(p -> p.getName().toLowerCase().contains(query.toLowerCase()) ||
-                            (p.getDescription() != null && p.getDescription().toLowerCase().contains(query.toLowerCase())))
-                .toList();
+        try {
+            return searchProducts(query, 0, SEARCH_RESULTS_LIMIT).getItems();
+        } catch (Exception e) {
+            logger.warn("Inventory search unavailable ({}), searching the cached catalog", e.getMessage());
+            return searchIndex.search(query, getAllProducts());
+        }
+    }
+    
+    /**
+     * One page of ranked search results, straight from inventory
+     */
+    @SuppressWarnings("unchecked")
+    public ProductSearchDTO searchProducts(String query, Integer page, Integer size) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/products/search")
+            .queryParam("q", query)
+            .queryParamIfPresent("page", Optional.ofNullable(page))
+            .queryParamIfPresent("size", Optional.ofNullable(size))
+            .encode()
+            .build()
+            .toUri();
+        Map<String, Object> body = fetchPage(uri);
+        ProductSearchDTO result = new ProductSearchDTO();
+        result.setQuery(query);
+        if (body == null) {
+            result.setItems(new ArrayList<>());
+            return result;
+        }
+        List<ProductDTO> items = ((List<Map<String, Object>>) body.getOrDefault("items", List.of())).stream()
+            .map(this::mapToProductDTO)
+            .toList();
+        items.forEach(catalogCache::putProduct);
+        result.setItems(items);
+        result.setTotal(((Number) body.getOrDefault("total", 0)).intValue());
+        result.setPage(((Number) body.getOrDefault("page", 0)).intValue());
+        result.setSize(((Number) body.getOrDefault("size", 0)).intValue());
+        return result;
+    }
+    
+    /**
+     * Best-selling products over the last {@code window} (hour or day), best first, ranked by
+     * inventory from its sales leaderboard. The products themselves come from the product cache
+     * where possible; if inventory cannot be reached the list is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ProductDTO> getBestsellers(String window, Integer limit) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/products/bestsellers")
+            .queryParamIfPresent("window", Optional.ofNullable(window))
+            .queryParamIfPresent("limit", Optional.ofNullable(limit))
+            .encode()
+            .build()
+            .toUri();
+        Map<String, Object> body;
+        try {
+            body = fetchPage(uri);
+        } catch (HttpClientErrorException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Inventory bestsellers unavailable ({}), returning none", e.getMessage());
+            return new ArrayList<>();
+        }
+        if (body == null) return new ArrayList<>();
+        
+        List<Long> ids = ((List<Map<String, Object>>) body.getOrDefault("items", List.of())).stream()
+            .map(item -> ((Number) item.get("productId")).longValue())
+            .toList();
+        return productsInOrder(ids);
+    }
+    
+    /**
+     * Products most often bought in the same order as product {@code id}, most frequent first.
+     * Empty if inventory cannot be reached, so a product page still renders without them.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ProductDTO> getBoughtTogether(Long id, Integer limit) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/products/" + id + "/bought-together")
+            .queryParamIfPresent("limit", Optional.ofNullable(limit))
+            .encode()
+            .build()
+            .toUri();
+        Map<String, Object> body;
+        try {
+            body = fetchPage(uri);
+        } catch (HttpClientErrorException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Inventory bought-together for product {} unavailable ({}), returning none", id, e.getMessage());
+            return new ArrayList<>();
+        }
+        if (body == null) return new ArrayList<>();
+        
+        List<Long> ids = ((List<Map<String, Object>>) body.getOrDefault("items", List.of())).stream()
+            .map(item -> ((Number) item.get("productId")).longValue())
+            .toList();
+        return productsInOrder(ids);
     }
     
     // Admin operations
@@ -88,18 +337,155 @@ public class ProductService {
             productDTO,
             (Class<Map<String, Object>>) (Class<?>) Map.class
         );
+        catalogCache.invalidateCatalog();
         return mapToProductDTO(response.getBody());
     }
     
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         logger.info("Updating product: {}", id);
         restTemplate.put(inventoryUrl + "/api/products/" + id, productDTO);
+        catalogCache.invalidateProduct(id);
         return getProductById(id).orElse(productDTO);
     }
     
+    /**
+     * Stream an NDJSON or CSV product import through to inventory as it arrives, without holding
+     * it in memory, and return inventory's report of imported and rejected rows.
+     */
+    public Map<String, Object> importProducts(InputStream body, MediaType contentType) {
+        logger.info("Streaming {} product import to inventory", contentType);
+        ResponseEntity<Map<String, Object>> response = importRestTemplate.execute(
+            URI.create(inventoryUrl + "/api/products/import"),
+            HttpMethod.POST,
+            request -> {
+                request.getHeaders().setContentType(contentType);
+                body.transferTo(request.getBody());
+            },
+            importRestTemplate.responseEntityExtractor(new ParameterizedTypeReference<Map<String, Object>>() {}.getType())
+        );
+        // Imported rows are not known individually here; the next catalog read picks them up
+        catalogCache.invalidateCatalog();
+        return response.getBody();
+    }
+    
+    /**
+     * Switch inventory's hot-SKU mode for a product: a stripe count splits its stock into that
+     * many independently decremented rows, null folds it back into one.
+     */
+    public ProductDTO setHotStock(Long id, Integer stripes) {
+        logger.info("Setting hot-stock stripes for product {} to {}", id, stripes);
+        if (stripes != null) {
+            restTemplate.put(inventoryUrl + "/api/products/" + id + "/hot-stock?stripes=" + stripes, null);
+        } else {
+            restTemplate.delete(inventoryUrl + "/api/products/" + id + "/hot-stock");
+        }
+        catalogCache.invalidateProduct(id);
+        return getProductById(id).orElse(null);
+    }
+    
     public void deleteProduct(Long id) {
         logger.info("Deleting product: {}", id);
         restTemplate.delete(inventoryUrl + "/api/products/" + id);
+        catalogCache.removeProduct(id);
+    }
+    
+    private List<ProductDTO> fetchAllProducts() {
+        logger.info("Fetching all products from inventory service");
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+            inventoryUrl + "/api/products",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        
+        List<Map<String, Object>> products = response.getBody();
+        if (products == null) return new ArrayList<>();
+        
+        List<ProductDTO> all = products.stream().map(this::mapToProductDTO).toList();
+        catalogCache.putAllProducts(all);
+        return all;
+    }
+    
+    private ProductDTO fetchProduct(Long id) {
+        logger.info("Fetching product by id: {}", id);
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            inventoryUrl + "/api/products/" + id,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+        
+        Map<String, Object> product = response.getBody();
+        if (product == null) return null;
+        
+        ProductDTO dto = mapToProductDTO(product);
+        catalogCache.putProduct(dto);
+        return dto;
+    }
+    
+    private Map<Long, ProductDTO> fetchProducts(Set<Long> ids) {
+        logger.info("Fetching {} products by id", ids.size());
+        String idParam = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+            inventoryUrl + "/api/products/batch?ids=" + idParam,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Map<String, Object>> products = response.getBody();
+        if (products == null) return found;
+        
+        for (Map<String, Object> product : products) {
+            ProductDTO dto = mapToProductDTO(product);
+            catalogCache.putProduct(dto);
+            found.put(dto.getId(), dto);
+        }
+        return found;
+    }
+    
+    // Products deleted since inventory counted them have no entry and are left out
+    private List<ProductDTO> productsInOrder(List<Long> ids) {
+        Map<Long, ProductDTO> products = getProductsByIds(ids);
+        return ids.stream().map(products::get).filter(Objects::nonNull).toList();
+    }
+    
+    private URI withPaging(UriComponentsBuilder uri, String sort, String direction, String cursor, Integer limit) {
+        return uri.queryParamIfPresent("sort", Optional.ofNullable(sort))
+            .queryParamIfPresent("direction", Optional.ofNullable(direction))
+            .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+            .queryParamIfPresent("limit", Optional.ofNullable(limit))
+            .encode()
+            .build()
+            .toUri();
+    }
+    
+    // Takes an already encoded URI: given a String, RestTemplate would encode it a second time
+    private Map<String, Object> fetchPage(URI uri) {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            uri,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+        return response.getBody();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void fillPage(ProductPageDTO page, Map<String, Object> body) {
+        if (body == null) {
+            page.setItems(new ArrayList<>());
+            return;
+        }
+        List<ProductDTO> items = ((List<Map<String, Object>>) body.getOrDefault("items", List.of())).stream()
+            .map(this::mapToProductDTO)
+            .toList();
+        items.forEach(catalogCache::putProduct);
+        page.setItems(items);
+        page.setNextCursor((String) body.get("nextCursor"));
+        page.setSort((String) body.get("sort"));
+        page.setDirection((String) body.get("direction"));
     }
     
     private ProductDTO mapToProductDTO(Map<String, Object> map) {
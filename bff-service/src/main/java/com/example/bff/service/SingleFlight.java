@@ -0,0 +1,120 @@
+package com.example.bff.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical downstream calls. The first caller for a key runs the call;
+ * callers arriving while it is in flight wait for and share its result (or its exception)
+ * instead of issuing their own. Nothing is cached once the call completes.
+ * <p>
+ * Counted as {@code bff.singleflight.requests}, tagged by name and by outcome
+ * ({@code executed} or {@code coalesced}).
+ */
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = counter(name, "executed", meterRegistry);
+        this.coalesced = counter(name, "coalesced", meterRegistry);
+    }
+    
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        
+        executed.increment();
+        try {
+            V value = call.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too: waiters must never be left on a future nobody will complete
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    /**
+     * Per-key coalescing for batch calls. Keys already in flight (from single or batch calls)
+     * are joined; the remaining keys are loaded with one {@code batchCall}. Keys the batch call
+     * does not return are absent from the result.
+     */
+    public Map<K, V> executeAll(Collection<K> keys, Function<Set<K>, Map<K, V>> batchCall) {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new LinkedHashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                joined.put(key, existing);
+            } else {
+                owned.put(key, mine);
+            }
+        }
+        
+        Map<K, V> result = new HashMap<>();
+        // Load our own keys before waiting on anyone else's, so two overlapping batches cannot deadlock
+        if (!owned.isEmpty()) {
+            executed.increment();
+            try {
+                Map<K, V> loaded = batchCall.apply(owned.keySet());
+                owned.forEach((key, future) -> {
+                    V value = loaded.get(key);
+                    future.complete(value);
+                    if (value != null) result.put(key, value);
+                });
+            } catch (Throwable e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+        
+        coalesced.increment(joined.size());
+        joined.forEach((key, future) -> {
+            V value = await(future);
+            if (value != null) result.put(key, value);
+        });
+        return result;
+    }
+    
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+    
+    private static Counter counter(String name, String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("bff.singleflight.requests")
+                .description("Downstream loads run or shared through single-flight coalescing")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
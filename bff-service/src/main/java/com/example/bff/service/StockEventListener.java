@@ -0,0 +1,141 @@
+package com.example.bff.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Follows inventory's stock event feed and pushes each new stock level into the
+ * {@link CatalogCache}, so cached products show current stock instead of whatever they had
+ * when last fetched. One background thread long-polls the feed from the position it last
+ * read; after an error it backs off and resumes from the same position, so no change is
+ * skipped. It joins at the end of the feed and drops what the cache held until then.
+ */
+@Component
+public class StockEventListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockEventListener.class);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    
+    @Autowired
+    @Qualifier("inventoryEventsRestTemplate")
+    private RestTemplate restTemplate;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${inventory.service.url}")
+    private String inventoryUrl;
+    
+    @Value("${bff.stock-events.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${bff.stock-events.wait:25s}")
+    private Duration wait;
+    
+    @Value("${bff.stock-events.batch-size:500}")
+    private int batchSize;
+    
+    private volatile boolean running = true;
+    private Thread worker;
+    private Counter appliedCounter;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        appliedCounter = Counter.builder("bff.stock.events.applied")
+                .description("Stock events from inventory applied to the catalog cache")
+                .register(meterRegistry);
+        worker = new Thread(this::run, "stock-event-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+    
+    private void run() {
+        Long cursor = null;
+        Duration backoff = Duration.ofSeconds(1);
+        while (running) {
+            try {
+                Map<String, Object> page = fetch(cursor);
+                if (cursor == null) {
+                    // Anything cached before we joined the feed may already be out of date
+                    catalogCache.invalidateAll();
+                }
+                cursor = ((Number) page.get("cursor")).longValue();
+                apply(page);
+                backoff = Duration.ofSeconds(1);
+            } catch (RuntimeException e) {
+                if (!running) return;
+                logger.warn("Reading inventory stock events failed ({}), retrying in {}s", e.getMessage(), backoff.toSeconds());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+    
+    private Map<String, Object> fetch(Long cursor) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(inventoryUrl + "/api/stock-events")
+            .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+            .queryParam("limit", batchSize)
+            .queryParam("waitSeconds", wait.toSeconds())
+            .build()
+            .toUri();
+        return restTemplate.exchange(uri, HttpMethod.GET, null,
+            new ParameterizedTypeReference<Map<String, Object>>() {}).getBody();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void apply(Map<String, Object> page) {
+        if (Boolean.TRUE.equals(page.get("reset"))) {
+            // Inventory's feed restarted behind us; changes may have been missed
+            logger.warn("Inventory stock event feed was reset, dropping cached products");
+            catalogCache.invalidateAll();
+            return;
+        }
+        List<Map<String, Object>> events = (List<Map<String, Object>>) page.get("events");
+        if (events == null || events.isEmpty()) return;
+        // Later events for a product supersede earlier ones in the same page
+        Map<Long, Integer> levels = new HashMap<>();
+        for (Map<String, Object> event : events) {
+            Number stock = (Number) event.get("stockQuantity");
+            levels.put(((Number) event.get("productId")).longValue(), stock != null ? stock.intValue() : null);
+        }
+        catalogCache.applyStock(levels);
+        appliedCounter.increment(events.size());
+        logger.debug("Applied {} stock events for {} products", events.size(), levels.size());
+    }
+}
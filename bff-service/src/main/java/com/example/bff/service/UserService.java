@@ -0,0 +1,43 @@
+package com.example.bff.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+@Service
+public class UserService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    
+    @Autowired
+    @Qualifier("identityRestTemplate")
+    private RestTemplate restTemplate;
+    
+    @Value("${identity.service.url}")
+    private String identityServiceUrl;
+    
+    /**
+     * Get a user's profile (name, email, address, phone) from the identity service
+     */
+    public Map<String, Object> getUserProfile(Long userId) {
+        logger.debug("Fetching profile for user: {}", userId);
+        
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            identityServiceUrl + "/api/users/" + userId,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+        
+        return response.getBody();
+    }
+}
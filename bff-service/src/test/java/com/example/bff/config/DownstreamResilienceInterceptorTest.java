@@ -0,0 +1,65 @@
+package com.example.bff.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DownstreamResilienceInterceptorTest {
+    
+    private final Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+    private final DownstreamResilienceInterceptor interceptor = new DownstreamResilienceInterceptor(circuitBreaker, bulkhead);
+    private final HttpRequest request = mock(HttpRequest.class);
+    private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+    
+    @Test
+    void holdsThePermitUntilTheResponseIsClosed() throws IOException {
+        ClientHttpResponse downstream = mock(ClientHttpResponse.class);
+        when(downstream.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(execution.execute(any(), any())).thenReturn(downstream);
+        
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution);
+        
+        // Headers are in, but the body has not been read yet
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isZero();
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], execution))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(circuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+        
+        response.close();
+        response.close();
+        verify(downstream, times(2)).close();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+    
+    @Test
+    void releasesThePermitWhenTheCallFails() throws IOException {
+        when(execution.execute(any(), any())).thenThrow(new IOException("Connection refused"));
+        
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], execution))
+                .isInstanceOf(IOException.class);
+        
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.bff.service;
+
+import com.example.bff.dto.CartItemDTO;
+import com.example.bff.dto.CheckoutBootstrapDTO;
+import com.example.bff.dto.CheckoutRequest;
+import com.example.bff.dto.OrderDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A shared pool as small as the payment pool, so payments on it would starve the bootstrap
+@SpringBootTest(properties = {
+        "bff.stock-events.enabled=false",
+        "spring.task.execution.pool.core-size=2",
+        "bff.checkout.payment.threads=2",
+        "bff.checkout.payment.max-pending=20",
+        "bff.checkout.bootstrap.branch-timeout=1s"
+})
+class AsyncCheckoutTest {
+    
+    private static final long PAYMENT_MILLIS = 300;
+    private static final long USER_ID = 7L;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CheckoutBootstrapService checkoutBootstrapService;
+    
+    @Autowired
+    private PaymentExecutor paymentExecutor;
+    
+    @MockBean
+    private CartService cartService;
+    
+    @MockBean
+    private PaymentService paymentService;
+    
+    @MockBean
+    private UserService userService;
+    
+    @MockBean(name = "orderRestTemplate")
+    private RestTemplate orderRestTemplate;
+    
+    @MockBean(name = "paymentRestTemplate")
+    private RestTemplate paymentRestTemplate;
+    
+    private final AtomicLong orderIds = new AtomicLong();
+    
+    @BeforeEach
+    void stubDownstreams() {
+        CartItemDTO item = new CartItemDTO();
+        item.setProductId(1L);
+        item.setQuantity(1);
+        item.setPrice(10.0);
+        when(cartService.fetchCartItems(anyLong())).thenReturn(List.of(item));
+        when(cartService.fetchCartItemsForCheckout(anyLong())).thenReturn(List.of(item));
+        when(cartService.calculateTotal(any())).thenReturn(10.0);
+        when(paymentService.getUserPaymentMethods(anyLong())).thenReturn(List.of());
+        when(userService.getUserProfile(anyLong())).thenReturn(Map.of("id", USER_ID));
+        when(orderRestTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OrderDTO.class)))
+                .thenAnswer(invocation -> {
+                    OrderDTO order = new OrderDTO();
+                    order.setId(orderIds.incrementAndGet());
+                    order.setTotalAmount(10.0);
+                    order.setStatus("PENDING");
+                    return ResponseEntity.ok(order);
+                });
+        when(paymentRestTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenAnswer(invocation -> {
+                    // A slow payment gateway
+                    Thread.sleep(PAYMENT_MILLIS);
+                    return ResponseEntity.ok(Map.of("status", "SUCCESS", "transactionId", "txn"));
+                });
+    }
+    
+    @AfterEach
+    void drainPayments() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (paymentExecutor.pending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(paymentExecutor.pending()).isZero();
+    }
+    
+    @Test
+    void bootstrapIsNotQueuedBehindBackgroundPayments() {
+        Long lastOrderId = null;
+        for (int i = 0; i < 20; i++) {
+            lastOrderId = orderService.checkoutAsync(USER_ID, checkoutRequest()).getOrderId();
+        }
+        // Two payment threads take about 3s for the 20 payments
+        assertThat(paymentExecutor.pending()).isGreaterThan(10);
+        
+        long start = System.nanoTime();
+        CheckoutBootstrapDTO bootstrap = checkoutBootstrapService.bootstrap(USER_ID);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        assertThat(bootstrap.getErrors()).isEmpty();
+        assertThat(bootstrap.getCartTotal()).isEqualTo(10.0);
+        assertThat(elapsedMillis).isLessThan(PAYMENT_MILLIS);
+        assertThat(orderService.getCheckoutStatus(lastOrderId, USER_ID))
+                .hasValueSatisfying(status -> assertThat(status.getState()).isEqualTo("PAYMENT_PROCESSING"));
+    }
+    
+    @Test
+    void refusesCheckoutBeforeCreatingAnOrderWhenPaymentsAreSaturated() {
+        for (int i = 0; i < 20; i++) {
+            orderService.checkoutAsync(USER_ID, checkoutRequest());
+        }
+        clearInvocations(orderRestTemplate);
+        
+        assertThatThrownBy(() -> orderService.checkoutAsync(USER_ID, checkoutRequest()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        verify(orderRestTemplate, times(0)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OrderDTO.class));
+    }
+    
+    @Test
+    void freesTheReservedSlotWhenTheOrderCannotBeCreated() {
+        when(orderRestTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OrderDTO.class)))
+                .thenThrow(new IllegalStateException("Order service down"));
+        
+        for (int i = 0; i < 25; i++) {
+            assertThatThrownBy(() -> orderService.checkoutAsync(USER_ID, checkoutRequest()))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(paymentExecutor.pending()).isZero();
+    }
+    
+    private static CheckoutRequest checkoutRequest() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setPaymentType("COD");
+        request.setDeliveryPhone("555-0100");
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+"""
+Concurrency vs. thread-count load test for the BFF execution modes.
+
+Starts a stub identity service whose /api/auth/login takes --stub-latency seconds
+(like the ~600ms payment simulator), then drives POST /api/auth/login through the BFF
+at increasing concurrency. While each level runs, a probe keeps browsing
+GET /api/products to show whether slow downstream calls starve unrelated traffic.
+Both the stub and the load generator are asyncio-based so they are not the bottleneck.
+
+Run the BFF in each mode against the stub and compare:
+
+  # platform threads (Tomcat pool of 200)
+  java -jar target/bff-service-0.0.1-SNAPSHOT.jar \
+      --bff.http.downstreams.identity.max-connections=2000 --bff.http.pool-acquire-timeout=30s \
+      --resilience4j.bulkhead.instances.identity.max-concurrent-calls=2000
+
+  # virtual threads (Java 21+), printing any carrier pinning
+  BFF_VIRTUAL_THREADS=true java -Djdk.tracePinnedThreads=short -jar target/bff-service-0.0.1-SNAPSHOT.jar \
+      --bff.http.downstreams.identity.max-connections=2000 --bff.http.pool-acquire-timeout=30s \
+      --resilience4j.bulkhead.instances.identity.max-concurrent-calls=2000
+
+  python3 virtual_threads_load_test.py --concurrency 100,200,400,800
+
+The identity pool and bulkhead are raised for the test so that request threads, not the
+connection pool or bulkhead, are what limits each mode. "peak threads" is the BFF's jvm.threads.live, which
+counts platform threads only.
+"""
+import argparse
+import asyncio
+import json
+import time
+from urllib.parse import urlparse
+
+LOGIN_BODY = json.dumps({"username": "load", "password": "load"}).encode()
+LOGIN_RESPONSE = json.dumps({"token": "t", "username": "load", "fullName": "Load Test",
+                             "role": "USER", "userId": 1}).encode()
+
+
+async def start_stub(port, latency):
+    async def handle(reader, writer):
+        try:
+            head = await reader.readuntil(b"\r\n\r\n")
+            length = 0
+            for line in head.split(b"\r\n"):
+                if line.lower().startswith(b"content-length:"):
+                    length = int(line.split(b":")[1])
+            await reader.readexactly(length)
+            await asyncio.sleep(latency)
+            writer.write(b"HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n"
+                         b"Content-Length: " + str(len(LOGIN_RESPONSE)).encode() +
+                         b"\r\nConnection: close\r\n\r\n" + LOGIN_RESPONSE)
+            await writer.drain()
+        except (asyncio.IncompleteReadError, asyncio.LimitOverrunError, ConnectionError):
+            pass
+        finally:
+            writer.close()
+
+    return await asyncio.start_server(handle, "0.0.0.0", port, backlog=4096)
+
+
+async def http_call(host, port, method, path, body=b""):
+    """Send one HTTP/1.1 request and return (seconds, status, body)."""
+    start = time.perf_counter()
+    status, payload = 0, b""
+    try:
+        reader, writer = await asyncio.open_connection(host, port)
+        writer.write(f"{method} {path} HTTP/1.1\r\nHost: {host}\r\nContent-Type: application/json\r\n"
+                     f"Content-Length: {len(body)}\r\nConnection: close\r\n\r\n".encode() + body)
+        await writer.drain()
+        raw = await asyncio.wait_for(reader.read(), timeout=60)
+        writer.close()
+        head, _, payload = raw.partition(b"\r\n\r\n")
+        status = int(head.split(b" ", 2)[1])
+        if b"transfer-encoding: chunked" in head.lower():
+            payload = dechunk(payload)
+    except (OSError, asyncio.TimeoutError, IndexError, ValueError):
+        pass
+    return time.perf_counter() - start, status, payload
+
+
+def dechunk(data):
+    body = b""
+    while data:
+        size, _, rest = data.partition(b"\r\n")
+        length = int(size.split(b";")[0], 16)
+        if length == 0:
+            break
+        body, data = body + rest[:length], rest[length + 2:]
+    return body
+
+
+async def live_threads(host, port):
+    _, status, payload = await http_call(host, port, "GET", "/actuator/metrics/jvm.threads.live")
+    try:
+        return int(json.loads(payload)["measurements"][0]["value"]) if status == 200 else -1
+    except (KeyError, ValueError, IndexError):
+        return -1
+
+
+def percentile(values, p):
+    if not values:
+        return 0.0
+    ordered = sorted(values)
+    return ordered[min(len(ordered) - 1, int(len(ordered) * p))]
+
+
+async def run_level(host, port, concurrency, requests_per_worker):
+    latencies, errors, probe = [], 0, []
+    peak_threads = 0
+    done = asyncio.Event()
+
+    async def worker():
+        nonlocal errors
+        for _ in range(requests_per_worker):
+            elapsed, status, _ = await http_call(host, port, "POST", "/api/auth/login", LOGIN_BODY)
+            latencies.append(elapsed)
+            errors += 0 if status == 200 else 1
+
+    async def sampler():
+        nonlocal peak_threads
+        while not done.is_set():
+            peak_threads = max(peak_threads, await live_threads(host, port))
+            elapsed, _, _ = await http_call(host, port, "GET", "/api/products")
+            probe.append(elapsed)
+            await asyncio.sleep(0.2)
+
+    sampling = asyncio.create_task(sampler())
+    start = time.perf_counter()
+    await asyncio.gather(*(worker() for _ in range(concurrency)))
+    wall = time.perf_counter() - start
+    done.set()
+    await sampling
+
+    return (f"{concurrency:>11} | {len(latencies) / wall:>8.1f} | {percentile(latencies, 0.5) * 1000:>7.0f} | "
+            f"{percentile(latencies, 0.95) * 1000:>7.0f} | {errors:>6} | {peak_threads:>12} | "
+            f"{percentile(probe, 0.95) * 1000:>14.0f}")
+
+
+async def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--bff", default="http://localhost:8080")
+    parser.add_argument("--stub-port", type=int, default=8084)
+    parser.add_argument("--stub-latency", type=float, default=0.6)
+    parser.add_argument("--concurrency", default="100,200,400,800")
+    parser.add_argument("--requests-per-worker", type=int, default=5)
+    parser.add_argument("--no-stub", action="store_true", help="use an already running identity service")
+    args = parser.parse_args()
+
+    bff = urlparse(args.bff)
+    host, port = bff.hostname, bff.port or 80
+    if not args.no_stub:
+        await start_stub(args.stub_port, args.stub_latency)
+    # warm up connections and JIT
+    await run_level(host, port, 20, 2)
+
+    print("concurrency |      rps | p50 ms  | p95 ms  | errors | peak threads | browse p95 ms")
+    for level in (int(c) for c in args.concurrency.split(",")):
+        print(await run_level(host, port, level, args.requests_per_worker), flush=True)
+
+
+if __name__ == "__main__":
+    asyncio.run(main())
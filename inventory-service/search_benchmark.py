@@ -0,0 +1,96 @@
+import argparse
+import random
+import statistics
+import time
+from concurrent.futures import ThreadPoolExecutor
+
+import requests
+
+# Talks to inventory-service directly so the numbers are the search engine's, not the BFF's
+BASE_URL = "http://localhost:8081/api"
+
+BRANDS = ["acme", "zenith", "nordic", "atlas", "pulse", "lumen", "vertex", "orbit", "summit", "echo"]
+NOUNS = ["headphones", "keyboard", "blender", "backpack", "lamp", "jacket", "sneakers", "camera",
+         "charger", "kettle", "monitor", "tent", "mattress", "speaker", "watch", "drone"]
+ADJECTIVES = ["wireless", "portable", "waterproof", "ergonomic", "compact", "premium", "smart",
+              "lightweight", "foldable", "rechargeable", "stainless", "bluetooth"]
+CATEGORIES = ["Electronics", "Home & Kitchen", "Sports & Outdoors", "Clothing", "Office"]
+
+# (label, query): common term, two terms, rare term, typo, prefix while typing
+QUERIES = [
+    ("common", "wireless"),
+    ("two terms", "waterproof jacket"),
+    ("rare", "zenith drone"),
+    ("typo", "headphnes"),
+    ("prefix", "blue"),
+    ("three terms", "acme portable speaker"),
+]
+
+
+def make_product(rng):
+    brand = rng.choice(BRANDS)
+    noun = rng.choice(NOUNS)
+    adjectives = rng.sample(ADJECTIVES, 2)
+    return {
+        "name": f"{brand.title()} {adjectives[0].title()} {noun.title()}",
+        "description": f"{adjectives[1].title()} {noun} by {brand} with {rng.choice(ADJECTIVES)} design",
+        "price": round(rng.uniform(5, 500), 2),
+        "stockQuantity": 100,
+        "category": rng.choice(CATEGORIES),
+    }
+
+
+def grow_catalog(session, current, target, rng, workers):
+    products = [make_product(rng) for _ in range(target - current)]
+    with ThreadPoolExecutor(max_workers=workers) as executor:
+        list(executor.map(lambda p: session.post(f"{BASE_URL}/products", json=p).raise_for_status(), products))
+
+
+def catalog_size(session):
+    return len(session.get(f"{BASE_URL}/products").json())
+
+
+def measure(session, query, runs):
+    timings = []
+    total = 0
+    for _ in range(runs):
+        start = time.perf_counter()
+        response = session.get(f"{BASE_URL}/products/search", params={"q": query, "size": 20})
+        timings.append((time.perf_counter() - start) * 1000)
+        response.raise_for_status()
+        total = response.json()["total"]
+    timings.sort()
+    return {
+        "p50": statistics.median(timings),
+        "p95": timings[int(len(timings) * 0.95) - 1],
+        "p99": timings[int(len(timings) * 0.99) - 1],
+        "total": total,
+    }
+
+
+def run_benchmark(sizes, runs, workers):
+    rng = random.Random(42)
+    session = requests.Session()
+    current = catalog_size(session)
+    print(f"Starting catalog: {current} products")
+    print(f"{'catalog':>8}  {'query':<12} {'matches':>8} {'p50 ms':>8} {'p95 ms':>8} {'p99 ms':>8}")
+    for size in sizes:
+        if size > current:
+            grow_catalog(session, current, size, rng, workers)
+            current = size
+        for label, query in QUERIES:
+            # Warm up the JIT before timing
+            measure(session, query, 20)
+            stats = measure(session, query, runs)
+            print(f"{current:>8}  {label:<12} {stats['total']:>8} {stats['p50']:>8.2f} "
+                  f"{stats['p95']:>8.2f} {stats['p99']:>8.2f}")
+
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser(description="Search latency versus catalog size")
+    parser.add_argument("--sizes", default="1000,10000,50000",
+                        help="comma-separated catalog sizes; products are added between steps")
+    parser.add_argument("--runs", type=int, default=200, help="timed requests per query and size")
+    parser.add_argument("--workers", type=int, default=8, help="concurrent requests while seeding")
+    args = parser.parse_args()
+    run_benchmark([int(s) for s in args.sizes.split(",")], args.runs, args.workers)
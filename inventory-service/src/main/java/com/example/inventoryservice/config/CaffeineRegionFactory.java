@@ -0,0 +1,117 @@
+package com.example.inventoryservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions held in bounded Caffeine caches, each reporting hits,
+ * misses, evictions and size as {@code cache.*} metrics tagged with the region name.
+ * Entity and query result regions are bounded by entry count and age; the update timestamps
+ * region is not, since losing a table's last-update time would let stale query results through.
+ * <p>
+ * Hibernate's read-write strategy sits on top of these regions, so soft locks, versions and
+ * timestamps keep the cache coherent with committed data; this class only stores entries.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    private final MeterRegistry meterRegistry;
+    private final long maxEntries;
+    private final long maxQueryResults;
+    private final Duration expireAfterWrite;
+
+    public CaffeineRegionFactory(MeterRegistry meterRegistry, long maxEntries, long maxQueryResults,
+                                 Duration expireAfterWrite) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.maxQueryResults = maxQueryResults;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(bounded(regionConfig.getRegionName(), maxEntries));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(bounded(regionName, maxQueryResults));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(Caffeine.newBuilder().build());
+    }
+
+    private Cache<Object, Object> bounded(String regionName, long maximumSize) {
+        Cache<Object, Object> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, regionName);
+        return cache;
+    }
+
+    private static final class CaffeineStorageAccess implements DomainDataStorageAccess {
+
+        private final Cache<Object, Object> cache;
+
+        private CaffeineStorageAccess(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
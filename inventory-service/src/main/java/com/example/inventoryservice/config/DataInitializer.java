@@ -2,12 +2,16 @@ package com.example.inventoryservice.config;
 
 import com.example.inventoryservice.model.Product;
 import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.service.StockLedgerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class DataInitializer implements CommandLineRunner {
 
@@ -18,6 +22,11 @@ public class DataInitializer implements CommandLineRunner {
 
     @Autowired
     private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    private final List<Product> samples = new ArrayList<>();
 
     @Override
     public void run(String... args) {
@@ -74,6 +83,10 @@ public class DataInitializer implements CommandLineRunner {
             addProduct("Fitbit Charge 5", "Advanced fitness tracker with built-in GPS", 
                 149.95, 75, "Sports & Outdoors", IMAGE_BASE + "fitbit.svg", 4.5, 6700);
             
+            // One saveAll, so the inserts go out as JDBC batches
+            productRepository.saveAll(samples);
+            stockLedgerService.recordOpeningStock(samples);
+            samples.clear();
             logger.info("Sample products initialized successfully!");
         }
     }
@@ -89,6 +102,6 @@ public class DataInitializer implements CommandLineRunner {
         product.setImageUrl(imageUrl);
         product.setRating(rating);
         product.setReviewCount(reviewCount);
-        productRepository.save(product);
+        samples.add(product);
     }
 }
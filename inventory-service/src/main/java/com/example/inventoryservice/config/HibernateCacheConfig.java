@@ -0,0 +1,28 @@
+package com.example.inventoryservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Plugs {@link CaffeineRegionFactory} into Hibernate. It is handed over as an instance rather
+ * than a class name so its regions can register metrics with the application's registry.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.cache.max-entries:100000}") long maxEntries,
+            @Value("${inventory.cache.max-query-results:1000}") long maxQueryResults,
+            @Value("${inventory.cache.expire-after-write:30m}") Duration expireAfterWrite) {
+        CaffeineRegionFactory regionFactory = new CaffeineRegionFactory(meterRegistry, maxEntries, maxQueryResults, expireAfterWrite);
+        return properties -> properties.put(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+    }
+}
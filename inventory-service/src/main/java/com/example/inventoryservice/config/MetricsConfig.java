@@ -0,0 +1,47 @@
+package com.example.inventoryservice.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.PercentileHistogramBuckets;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Without a monitoring system on the classpath Boot uses the simple registry, which keeps
+     * only explicit bucket boundaries and rotates histograms every two minutes. Prometheus needs
+     * the buckets of a percentile histogram, with counts that only ever grow. So a requested
+     * percentile histogram becomes fixed boundaries, and distributions never expire.
+     * This mirrors what Micrometer's own Prometheus registry does.
+     * As there, percentiles and max then cover the whole uptime.
+     */
+    @Bean
+    public MeterFilter cumulativeHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                DistributionStatisticConfig.Builder cumulative = DistributionStatisticConfig.builder()
+                        .expiry(Duration.ofDays(1825))
+                        .bufferLength(1);
+                DistributionStatisticConfig merged = config.merge(DistributionStatisticConfig.DEFAULT);
+                // Distribution summaries have no upper bound by default, which would mean hundreds of buckets
+                if (Boolean.TRUE.equals(merged.isPercentileHistogram()) && Double.isFinite(merged.getMaximumExpectedValueAsDouble())) {
+                    NavigableSet<Double> buckets = new TreeSet<>(PercentileHistogramBuckets.buckets(merged));
+                    if (config.getServiceLevelObjectiveBoundaries() != null) {
+                        Arrays.stream(config.getServiceLevelObjectiveBoundaries()).forEach(buckets::add);
+                    }
+                    cumulative.serviceLevelObjectives(buckets.stream().mapToDouble(Double::doubleValue).toArray());
+                }
+                return cumulative.build().merge(config);
+            }
+        };
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.inventoryservice.controller;
 
 import com.example.inventoryservice.dto.OrderRequest;
-import com.example.inventoryservice.service.OrderService;
+import com.example.inventoryservice.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -17,17 +17,18 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Orders", description = "Order Processing APIs")
 public class OrderController {
 
-    private final OrderService orderService;
+    private final ReservationService reservationService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
-        this.orderService = orderService;
+    public OrderController(ReservationService reservationService) {
+        this.reservationService = reservationService;
     }
 
     @PostMapping("/process")
     @Operation(summary = "Process order and update inventory")
     public ResponseEntity<String> processOrder(@Valid @RequestBody OrderRequest orderRequest) {
-        String result = orderService.processOrder(orderRequest);
+        // Goes through reservations so direct orders cannot take stock held for other orders
+        String result = reservationService.processOrder(orderRequest);
         if (result.startsWith("Insufficient") || result.startsWith("Product not found") || result.contains("failed")) {
             return ResponseEntity.badRequest().body(result);
         }
@@ -1,14 +1,31 @@
 package com.example.inventoryservice.controller;
 
+import com.example.inventoryservice.dto.BestsellersDTO;
+import com.example.inventoryservice.dto.BoughtTogetherDTO;
 import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.ProductFilterDTO;
+import com.example.inventoryservice.dto.ProductImportResultDTO;
+import com.example.inventoryservice.dto.ProductPageDTO;
+import com.example.inventoryservice.dto.ProductSearchDTO;
+import com.example.inventoryservice.dto.StockLedgerDTO;
+import com.example.inventoryservice.dto.StockMovementDTO;
+import com.example.inventoryservice.service.BestsellerTracker;
+import com.example.inventoryservice.service.CoPurchaseIndex;
+import com.example.inventoryservice.service.ProductImportService;
 import com.example.inventoryservice.service.ProductService;
+import com.example.inventoryservice.service.StockLedgerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,11 +35,23 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class ProductController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final StockLedgerService stockLedgerService;
+    private final BestsellerTracker bestsellerTracker;
+    private final CoPurchaseIndex coPurchaseIndex;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             StockLedgerService stockLedgerService, BestsellerTracker bestsellerTracker,
+                             CoPurchaseIndex coPurchaseIndex) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.stockLedgerService = stockLedgerService;
+        this.bestsellerTracker = bestsellerTracker;
+        this.coPurchaseIndex = coPurchaseIndex;
     }
 
     @PostMapping
@@ -32,6 +61,15 @@ public class ProductController {
         return ResponseEntity.ok(savedProduct);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk import products from NDJSON or CSV with a header row, reporting rejected rows by line")
+    public ResponseEntity<ProductImportResultDTO> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                 InputStream body) throws IOException {
+        // The body is read as it arrives rather than bound up front, however large the import
+        ProductImportResultDTO result = productImportService.importProducts(body, contentType);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update product and stock levels")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO) {
@@ -46,6 +84,57 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get one page of products, sorted by id, price, rating, reviewCount or name")
+    public ResponseEntity<ProductPageDTO> getProductPage(@RequestParam(defaultValue = "id") String sort,
+                                                         @RequestParam(defaultValue = "asc") String direction,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        ProductPageDTO page = productService.getProductPage(sort, direction, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products by category, price band and minimum rating, with facet counts")
+    public ResponseEntity<ProductFilterDTO> filterProducts(@RequestParam(required = false) String category,
+                                                           @RequestParam(required = false) Double minPrice,
+                                                           @RequestParam(required = false) Double maxPrice,
+                                                           @RequestParam(required = false) Double minRating,
+                                                           @RequestParam(defaultValue = "id") String sort,
+                                                           @RequestParam(defaultValue = "asc") String direction,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        ProductFilterDTO result = productService.filterProducts(category, minPrice, maxPrice, minRating, sort, direction, cursor, limit);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Ranked full-text search over product name, category and description")
+    public ResponseEntity<ProductSearchDTO> searchProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        ProductSearchDTO result = productService.searchProducts(q, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/bestsellers")
+    @Operation(summary = "Approximate best-selling products by units sold over the last hour or day")
+    public ResponseEntity<BestsellersDTO> getBestsellers(@RequestParam(defaultValue = "day") String window,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        BestsellersDTO bestsellers = bestsellerTracker.bestsellers(window, limit);
+        return ResponseEntity.ok(bestsellers);
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "Get multiple products by ID in a single call")
+    public ResponseEntity<List<ProductDTO>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " product IDs can be requested at once");
+        }
+        List<ProductDTO> products = productService.getProductsByIds(new LinkedHashSet<>(ids));
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
@@ -53,6 +142,44 @@ public class ProductController {
         return product.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/bought-together")
+    @Operation(summary = "Products most often bought in the same order as this one")
+    public ResponseEntity<BoughtTogetherDTO> getBoughtTogether(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "6") int limit) {
+        BoughtTogetherDTO boughtTogether = coPurchaseIndex.boughtTogether(id, limit);
+        return ResponseEntity.ok(boughtTogether);
+    }
+
+    @PutMapping("/{id}/hot-stock")
+    @Operation(summary = "Split a hot product's stock into independently decremented stripes")
+    public ResponseEntity<ProductDTO> enableHotStock(@PathVariable Long id, @RequestParam(defaultValue = "8") int stripes) {
+        Optional<ProductDTO> product = productService.enableHotStock(id, stripes);
+        return product.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/hot-stock")
+    @Operation(summary = "Fold a hot product's stripes back into a single stock row")
+    public ResponseEntity<ProductDTO> disableHotStock(@PathVariable Long id) {
+        Optional<ProductDTO> product = productService.disableHotStock(id);
+        return product.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/stock-movements")
+    @Operation(summary = "Restock, adjust or release stock by a relative amount, recorded in the stock ledger")
+    public ResponseEntity<ProductDTO> moveStock(@PathVariable Long id, @Valid @RequestBody StockMovementDTO movement) {
+        Optional<ProductDTO> product = productService.moveStock(id, movement);
+        return product.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/stock-ledger")
+    @Operation(summary = "Stock movement history, newest first, with the stock derived from the ledger")
+    public ResponseEntity<StockLedgerDTO> getStockLedger(@PathVariable Long id,
+                                                         @RequestParam(required = false) Long before,
+                                                         @RequestParam(defaultValue = "50") int limit) {
+        Optional<StockLedgerDTO> ledger = stockLedgerService.history(id, before, limit);
+        return ledger.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete product")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
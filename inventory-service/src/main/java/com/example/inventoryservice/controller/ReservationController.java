@@ -0,0 +1,68 @@
+package com.example.inventoryservice.controller;
+
+import com.example.inventoryservice.dto.AvailabilityDTO;
+import com.example.inventoryservice.dto.ReservationDTO;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservations")
+@Tag(name = "Reservations", description = "Time-bounded stock hold APIs")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @Autowired
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Hold stock for an order until it is confirmed, released or expires")
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody ReservationRequest request) {
+        ReservationDTO reservation = reservationService.reserve(request);
+        if ("REJECTED".equals(reservation.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(reservation);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @PostMapping("/{orderId}/confirm")
+    @Operation(summary = "Confirm a reservation, decrementing stock for its order")
+    public ResponseEntity<ReservationDTO> confirm(@PathVariable String orderId) {
+        ReservationDTO reservation = reservationService.confirm(orderId);
+        if ("FAILED".equals(reservation.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(reservation);
+        }
+        return ResponseEntity.ok(reservation);
+    }
+
+    @DeleteMapping("/{orderId}")
+    @Operation(summary = "Release a reservation's hold")
+    public ResponseEntity<ReservationDTO> release(@PathVariable String orderId) {
+        return ResponseEntity.ok(reservationService.release(orderId));
+    }
+
+    @GetMapping("/{orderId}")
+    @Operation(summary = "Get an active reservation")
+    public ResponseEntity<ReservationDTO> getReservation(@PathVariable String orderId) {
+        return reservationService.getReservation(orderId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/availability/{productId}")
+    @Operation(summary = "Get available-to-sell stock (stock minus active holds)")
+    public ResponseEntity<AvailabilityDTO> getAvailability(@PathVariable Long productId) {
+        return reservationService.getAvailability(productId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.inventoryservice.controller;
+
+import com.example.inventoryservice.dto.StockEventPageDTO;
+import com.example.inventoryservice.service.StockEventService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/stock-events")
+@Tag(name = "Stock events", description = "Feed of stock level changes")
+public class StockEventController {
+
+    private final StockEventService stockEventService;
+
+    @Autowired
+    public StockEventController(StockEventService stockEventService) {
+        this.stockEventService = stockEventService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Stock changes after a cursor, oldest first; when there are none yet, waits up to waitSeconds for one")
+    public DeferredResult<StockEventPageDTO> getStockEvents(@RequestParam(required = false) Long cursor,
+                                                            @RequestParam(defaultValue = "100") int limit,
+                                                            @RequestParam(defaultValue = "25") int waitSeconds) {
+        return stockEventService.poll(cursor, limit, Duration.ofSeconds(waitSeconds));
+    }
+}
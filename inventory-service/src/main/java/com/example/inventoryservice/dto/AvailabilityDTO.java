@@ -0,0 +1,51 @@
+package com.example.inventoryservice.dto;
+
+public class AvailabilityDTO {
+    private Long productId;
+    private Integer stockQuantity;
+    private Integer reserved;
+    private Integer available;  // stock minus active reservations
+
+    public AvailabilityDTO() {
+    }
+
+    public AvailabilityDTO(Long productId, Integer stockQuantity, Integer reserved, Integer available) {
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+        this.reserved = reserved;
+        this.available = available;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(Integer reserved) {
+        this.reserved = reserved;
+    }
+
+    public Integer getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Integer available) {
+        this.available = available;
+    }
+}
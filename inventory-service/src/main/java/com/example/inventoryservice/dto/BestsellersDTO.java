@@ -0,0 +1,64 @@
+package com.example.inventoryservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BestsellersDTO {
+    private String window;  // hour or day
+    private LocalDateTime computedAt;
+    private List<Entry> items;  // best-selling first
+
+    public static class Entry {
+        private Long productId;
+        private Long unitsSold;  // estimate from the sketch, exact while few products sell
+
+        public Entry() {
+        }
+
+        public Entry(Long productId, Long unitsSold) {
+            this.productId = productId;
+            this.unitsSold = unitsSold;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public Long getUnitsSold() {
+            return unitsSold;
+        }
+
+        public void setUnitsSold(Long unitsSold) {
+            this.unitsSold = unitsSold;
+        }
+    }
+
+    // Getters and Setters
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+
+    public List<Entry> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Entry> items) {
+        this.items = items;
+    }
+}
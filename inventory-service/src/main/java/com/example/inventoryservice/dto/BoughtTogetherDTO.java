@@ -0,0 +1,54 @@
+package com.example.inventoryservice.dto;
+
+import java.util.List;
+
+public class BoughtTogetherDTO {
+    private Long productId;
+    private List<Entry> items;  // most often bought together first
+
+    public static class Entry {
+        private Long productId;
+        private Integer orders;  // orders containing both products, as far as the index has counted them
+
+        public Entry() {
+        }
+
+        public Entry(Long productId, Integer orders) {
+            this.productId = productId;
+            this.orders = orders;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public Integer getOrders() {
+            return orders;
+        }
+
+        public void setOrders(Integer orders) {
+            this.orders = orders;
+        }
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public List<Entry> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Entry> items) {
+        this.items = items;
+    }
+}
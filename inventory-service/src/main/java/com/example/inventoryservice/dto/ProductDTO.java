@@ -24,6 +24,7 @@ public class ProductDTO {
     private String imageUrl;
     private Double rating;
     private Integer reviewCount;
+    private Integer stockStripes;
 
     // Getters and Setters
     public Long getId() {
@@ -97,4 +98,12 @@ public class ProductDTO {
     public void setReviewCount(Integer reviewCount) {
         this.reviewCount = reviewCount;
     }
+
+    public Integer getStockStripes() {
+        return stockStripes;
+    }
+
+    public void setStockStripes(Integer stockStripes) {
+        this.stockStripes = stockStripes;
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.inventoryservice.dto;
+
+import java.util.Map;
+
+/**
+ * One page of filtered products plus facet counts for the whole result
+ */
+public class ProductFilterDTO extends ProductPageDTO {
+    private int total;
+    private Map<String, Integer> categories;
+    private Map<String, Integer> priceRanges;
+    private Map<String, Integer> ratings;
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Map<String, Integer> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Integer> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Integer> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(Map<String, Integer> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+
+    public Map<String, Integer> getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(Map<String, Integer> ratings) {
+        this.ratings = ratings;
+    }
+}
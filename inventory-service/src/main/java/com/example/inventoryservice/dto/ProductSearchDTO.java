@@ -0,0 +1,52 @@
+package com.example.inventoryservice.dto;
+
+import java.util.List;
+
+public class ProductSearchDTO {
+    private String query;
+    private List<ProductDTO> items;  // best match first
+    private int total;
+    private int page;
+    private int size;
+
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public List<ProductDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductDTO> items) {
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.inventoryservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class ReservationDTO {
+    private String orderId;
+    private String status;  // HELD, CONFIRMED, RELEASED, REJECTED or FAILED
+    private Map<Long, Integer> items;  // product ID -> quantity
+    private LocalDateTime expiresAt;
+    private String message;
+
+    // Getters and Setters
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Map<Long, Integer> getItems() {
+        return items;
+    }
+
+    public void setItems(Map<Long, Integer> items) {
+        this.items = items;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
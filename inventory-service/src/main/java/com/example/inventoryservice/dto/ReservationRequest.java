@@ -0,0 +1,42 @@
+package com.example.inventoryservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+
+public class ReservationRequest {
+    @NotBlank(message = "Order ID is required for idempotency")
+    private String orderId;  // the order the hold will be confirmed or released for
+    @NotEmpty(message = "Reservation must contain items")
+    @Valid
+    private List<OrderRequest.OrderItem> items;
+    @Positive(message = "TTL must be positive")
+    private Integer ttlSeconds;  // optional, defaults to inventory.reservation.ttl
+
+    // Getters and Setters
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public List<OrderRequest.OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderRequest.OrderItem> items) {
+        this.items = items;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
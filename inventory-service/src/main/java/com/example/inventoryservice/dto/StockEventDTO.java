@@ -0,0 +1,70 @@
+package com.example.inventoryservice.dto;
+
+import java.time.LocalDateTime;
+
+public class StockEventDTO {
+    private long position;
+    private Long productId;
+    private Integer stockQuantity;  // stock when the event was published; null once the product is gone
+    private Integer quantityChange;
+    private String cause;  // ORDER, UPDATE, DELETE, or the stock movement type
+    private String reference;
+    private LocalDateTime occurredAt;
+
+    // Getters and Setters
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getQuantityChange() {
+        return quantityChange;
+    }
+
+    public void setQuantityChange(Integer quantityChange) {
+        this.quantityChange = quantityChange;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    public void setCause(String cause) {
+        this.cause = cause;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.inventoryservice.dto;
+
+import java.util.List;
+
+public class StockEventPageDTO {
+    private List<StockEventDTO> events;
+    private long cursor;  // pass back to continue after the last event
+    private boolean reset;  // the requested cursor is ahead of the feed; consumers should drop what they derived from it
+
+    // Getters and Setters
+    public List<StockEventDTO> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<StockEventDTO> events) {
+        this.events = events;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.inventoryservice.dto;
+
+import com.example.inventoryservice.model.StockLedgerEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StockLedgerDTO {
+    private Long productId;
+    private Integer stockQuantity;  // live stock, as every order checks it
+    private Long derivedStock;  // snapshot plus the entries not folded in; equals stockQuantity unless a movement is in flight
+    private Long snapshotQuantity;
+    private LocalDateTime snapshotTakenAt;
+    private List<Entry> entries;  // newest first
+    private Long nextBefore;  // pass as before= for older entries; null when there are none
+
+    public static class Entry {
+        private Long id;
+        private StockLedgerEntry.Type type;
+        private Integer quantity;
+        private String reference;
+        private LocalDateTime recordedAt;
+        private boolean compacted;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public StockLedgerEntry.Type getType() {
+            return type;
+        }
+
+        public void setType(StockLedgerEntry.Type type) {
+            this.type = type;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public void setReference(String reference) {
+            this.reference = reference;
+        }
+
+        public LocalDateTime getRecordedAt() {
+            return recordedAt;
+        }
+
+        public void setRecordedAt(LocalDateTime recordedAt) {
+            this.recordedAt = recordedAt;
+        }
+
+        public boolean isCompacted() {
+            return compacted;
+        }
+
+        public void setCompacted(boolean compacted) {
+            this.compacted = compacted;
+        }
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Long getDerivedStock() {
+        return derivedStock;
+    }
+
+    public void setDerivedStock(Long derivedStock) {
+        this.derivedStock = derivedStock;
+    }
+
+    public Long getSnapshotQuantity() {
+        return snapshotQuantity;
+    }
+
+    public void setSnapshotQuantity(Long snapshotQuantity) {
+        this.snapshotQuantity = snapshotQuantity;
+    }
+
+    public LocalDateTime getSnapshotTakenAt() {
+        return snapshotTakenAt;
+    }
+
+    public void setSnapshotTakenAt(LocalDateTime snapshotTakenAt) {
+        this.snapshotTakenAt = snapshotTakenAt;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public Long getNextBefore() {
+        return nextBefore;
+    }
+
+    public void setNextBefore(Long nextBefore) {
+        this.nextBefore = nextBefore;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.inventoryservice.dto;
+
+import com.example.inventoryservice.model.StockLedgerEntry;
+import jakarta.validation.constraints.NotNull;
+
+public class StockMovementDTO {
+    @NotNull(message = "Movement type is required")
+    private StockLedgerEntry.Type type;  // RESTOCK, ADJUSTMENT or RELEASE; sales come from orders
+    @NotNull(message = "Quantity is required")
+    private Integer quantity;  // positive for RESTOCK and RELEASE, signed for ADJUSTMENT
+    private String reference;  // e.g. delivery note or cancelled order ID
+
+    // Getters and Setters
+    public StockLedgerEntry.Type getType() {
+        return type;
+    }
+
+    public void setType(StockLedgerEntry.Type type) {
+        this.type = type;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+}
@@ -1,16 +1,51 @@
 package com.example.inventoryservice.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency record of a processed order. Only processed orders are stored, with the
+ * result returned to the client so that retries get exactly the same answer.
+ */
 @Entity
-@Table(name = "orders")
-public class Order {
+@Table(name = "orders", indexes = @Index(name = "idx_orders_processed_at", columnList = "processedAt"))
+public class Order implements Persistable<String> {
 
     @Id
     private String orderId;  // client-provided for idempotency
-    private String status;  // PROCESSED or FAILED
+    private String status;  // PROCESSED
+    @Column(length = 1000)
+    private String response;
+    private LocalDateTime processedAt;
+
+    // Lets save() insert new records directly instead of selecting by the assigned ID first
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 
     // Getters and Setters
     public String getOrderId() {
@@ -28,4 +63,20 @@ public class Order {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
 }
@@ -1,19 +1,44 @@
 package com.example.inventoryservice.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.persistence.Column;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "products")
+// One index per catalog sort key and direction, with the ID tie-breaker, so keyset pages
+// seek instead of scanning and sorting (H2 cannot walk an ascending index backwards)
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_id_desc", columnList = "id DESC"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_price_id_desc", columnList = "price DESC, id DESC"),
+        @Index(name = "idx_products_rating_id", columnList = "rating, id"),
+        @Index(name = "idx_products_rating_id_desc", columnList = "rating DESC, id DESC"),
+        @Index(name = "idx_products_review_count_id", columnList = "reviewCount, id"),
+        @Index(name = "idx_products_review_count_id_desc", columnList = "reviewCount DESC, id DESC"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_name_id_desc", columnList = "name DESC, id DESC"),
+        @Index(name = "idx_products_category_id", columnList = "category, id")
+})
+// Read-write: Hibernate soft-locks an entry while a transaction changes the row and only
+// caches versions newer than the one it replaced, so readers never see uncommitted or stale rows
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 public class Product {
 
+    // Sequence rather than identity: Hibernate can only batch inserts when it knows the IDs
+    // up front, and the pooled allocation takes one sequence call per block of 50
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     private String name;
     
@@ -25,6 +50,7 @@ public class Product {
     private String imageUrl;
     private Double rating;
     private Integer reviewCount;
+    private Integer stockStripes;  // null unless stock is split into stripes (hot-SKU mode)
     
     @Version
     private Integer version;
@@ -102,6 +128,14 @@ public class Product {
         this.reviewCount = reviewCount;
     }
 
+    public Integer getStockStripes() {
+        return stockStripes;
+    }
+
+    public void setStockStripes(Integer stockStripes) {
+        this.stockStripes = stockStripes;
+    }
+
     public Integer getVersion() {
         return version;
     }
@@ -0,0 +1,101 @@
+package com.example.inventoryservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for one stock change, written in the transaction that changed the stock. It has
+ * no feed position until the relay publishes it; the relay also stamps the product's stock
+ * level as of publication, which is what feed consumers apply.
+ */
+@Entity
+@Table(name = "stock_events", indexes = {
+        @Index(name = "idx_stock_events_position", columnList = "position", unique = true),
+        @Index(name = "idx_stock_events_product_position", columnList = "productId, position")
+})
+public class StockEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_event_seq")
+    @SequenceGenerator(name = "stock_event_seq", sequenceName = "stock_event_seq", allocationSize = 50)
+    private Long id;
+    private Long position;  // null until published
+    private Long productId;
+    private Integer quantityChange;
+    private Integer stockQuantity;  // set on publication; null if the product no longer exists
+    private String cause;  // ORDER, UPDATE, DELETE, or the stock movement type
+    private String reference;  // order ID for ORDER
+    private LocalDateTime occurredAt;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantityChange() {
+        return quantityChange;
+    }
+
+    public void setQuantityChange(Integer quantityChange) {
+        this.quantityChange = quantityChange;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    public void setCause(String cause) {
+        this.cause = cause;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.inventoryservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stock movement, appended in the transaction that moved the stock. Entries are never
+ * changed afterwards, except to mark them as folded into the product's {@link StockSnapshot}.
+ */
+@Entity
+@Table(name = "stock_ledger", indexes = {
+        @Index(name = "idx_stock_ledger_product", columnList = "productId, id"),
+        @Index(name = "idx_stock_ledger_pending", columnList = "compacted, productId")
+})
+public class StockLedgerEntry {
+
+    public enum Type {
+        SALE,  // taken by an order
+        RESTOCK,  // received, including a new product's opening stock
+        ADJUSTMENT,  // correction either way, e.g. after a count or a product update
+        RELEASE  // returned to sale, e.g. from a cancelled order
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_seq")
+    @SequenceGenerator(name = "stock_ledger_seq", sequenceName = "stock_ledger_seq", allocationSize = 50)
+    private Long id;
+    private Long productId;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Type type;
+    private Integer quantity;  // signed: negative when stock goes out
+    private String reference;  // order ID for SALE, free text otherwise
+    private LocalDateTime recordedAt;
+    private boolean compacted;  // folded into the product's snapshot
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+    public void setCompacted(boolean compacted) {
+        this.compacted = compacted;
+    }
+}
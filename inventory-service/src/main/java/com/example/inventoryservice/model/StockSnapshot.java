@@ -0,0 +1,64 @@
+package com.example.inventoryservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's stock as of the ledger entries folded into it so far. The product's stock is
+ * this quantity plus its {@link StockLedgerEntry entries} that are not folded in yet.
+ */
+@Entity
+@Table(name = "stock_snapshots")
+public class StockSnapshot {
+
+    @Id
+    private Long productId;
+    private Long quantity;
+    private Long lastEntryId;  // newest entry folded in; null for a baseline of a product without history
+    private Long entriesFolded;
+    private LocalDateTime takenAt;
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(Long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    public Long getEntriesFolded() {
+        return entriesFolded;
+    }
+
+    public void setEntriesFolded(Long entriesFolded) {
+        this.entriesFolded = entriesFolded;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+}
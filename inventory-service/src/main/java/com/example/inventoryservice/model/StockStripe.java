@@ -0,0 +1,57 @@
+package com.example.inventoryservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One independently decrementable slice of a hot product's stock. While a product is striped
+ * its own stockQuantity stays at 0 and its stock is the sum of its stripes.
+ */
+@Entity
+@Table(name = "stock_stripes", uniqueConstraints = @UniqueConstraint(columnNames = {"productId", "stripeIndex"}))
+public class StockStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long productId;
+    private Integer stripeIndex;
+    private Integer quantity;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStripeIndex() {
+        return stripeIndex;
+    }
+
+    public void setStripeIndex(Integer stripeIndex) {
+        this.stripeIndex = stripeIndex;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
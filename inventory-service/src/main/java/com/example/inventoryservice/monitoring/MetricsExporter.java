@@ -1,44 +1,179 @@
 package com.example.inventoryservice.monitoring;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
-import java.io.FileWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.Map;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Optional on-disk copy of the metrics, for when nothing scrapes {@code /actuator/prometheus}.
+ * Every interval the scheduler thread renders a snapshot in the same Prometheus text format
+ * and hands it to a writer thread, so file I/O never holds up the scheduled tasks it shares
+ * that thread with; if the writer falls behind, snapshots are dropped rather than queued
+ * without bound.
+ * <p>
+ * Snapshots are appended as separate gzip members to the current segment file, so a segment
+ * is readable with {@code zcat} even while it is being written. A new segment starts once the
+ * current one would exceed {@code inventory.metrics.export.segment-size}, and only the newest
+ * {@code inventory.metrics.export.max-segments} are kept.
+ */
 @Component
+@ConditionalOnProperty(name = "inventory.metrics.export.enabled", havingValue = "true")
 public class MetricsExporter {
 
     private static final Logger logger = LoggerFactory.getLogger(MetricsExporter.class);
+    private static final String SEGMENT_PREFIX = "metrics-";
+    private static final String SEGMENT_SUFFIX = ".prom.gz";
+    // Sorts by name in the order the segments were started
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+            .withZone(ZoneOffset.UTC);
+
     private final MeterRegistry meterRegistry;
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+    private final BlockingQueue<Snapshot> pending = new ArrayBlockingQueue<>(4);
+    private final Counter droppedCounter;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Owned by the writer thread
+    private OutputStream segment;
+    private long segmentBytes;
 
-    public MetricsExporter(MeterRegistry meterRegistry) {
+    public MetricsExporter(MeterRegistry meterRegistry,
+                           @Value("${inventory.metrics.export.directory:metrics}") Path directory,
+                           @Value("${inventory.metrics.export.segment-size:1MB}") DataSize segmentSize,
+                           @Value("${inventory.metrics.export.max-segments:20}") int maxSegments) {
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("inventory.metrics.export.max-segments must be at least 1");
+        }
         this.meterRegistry = meterRegistry;
+        this.directory = directory;
+        this.maxSegmentBytes = segmentSize.toBytes();
+        this.maxSegments = maxSegments;
+        this.droppedCounter = Counter.builder("inventory.metrics.export.dropped")
+                .description("Metrics snapshots dropped because the exporter fell behind")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "metrics-exporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private record Snapshot(Instant takenAt, String text) {
+    }
+
+    @Scheduled(fixedRateString = "${inventory.metrics.export.interval-ms:30000}")
+    public void export() {
+        Snapshot snapshot = new Snapshot(Instant.now(), PrometheusTextFormat.scrape(meterRegistry));
+        if (!pending.offer(snapshot)) {
+            droppedCounter.increment();
+            logger.debug("Metrics exporter is behind, dropped snapshot taken at {}", snapshot.takenAt());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
     }
 
-    @Scheduled(fixedRate = 30000) // every 30 seconds
-    public void exportMetricsToFile() {
-        try (FileWriter writer = new FileWriter("metrics.log", true)) {
-            writer.write("=== Metrics at " + LocalDateTime.now() + " ===\n");
-            meterRegistry.getMeters().forEach(meter -> {
+    private void run() {
+        try {
+            while (running) {
+                Snapshot snapshot;
                 try {
-                    Map<String, String> tags = meter.getId().getTags().stream()
-                            .collect(java.util.stream.Collectors.toMap(t -> t.getKey(), t -> t.getValue()));
-                    writer.write(meter.getId().getName() + ": " + meter.measure().iterator().next().getValue() +
-                            " | tags: " + tags + "\n");
-                } catch (Exception e) {
-                    // ignore
+                    snapshot = pending.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
                 }
-            });
-            writer.write("==========================\n");
-            logger.debug("Metrics exported to metrics.log");
+                try {
+                    write(snapshot);
+                } catch (IOException e) {
+                    logger.warn("Writing metrics to {} failed: {}", directory, e.getMessage());
+                    // Start over in a fresh segment rather than append after a partial write
+                    closeSegment();
+                }
+            }
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(Snapshot snapshot) throws IOException {
+        byte[] member = compress(snapshot);
+        // A single snapshot larger than a whole segment still gets written, on its own
+        if (segment == null || (segmentBytes > 0 && segmentBytes + member.length > maxSegmentBytes)) {
+            roll(snapshot.takenAt());
+        }
+        segment.write(member);
+        segment.flush();
+        segmentBytes += member.length;
+    }
+
+    private byte[] compress(Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(snapshot.text().length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(("# SNAPSHOT " + snapshot.takenAt() + "\n").getBytes(StandardCharsets.UTF_8));
+            gzip.write(snapshot.text().getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.toByteArray();
+    }
+
+    private void roll(Instant at) throws IOException {
+        closeSegment();
+        Files.createDirectories(directory);
+        Path path = directory.resolve(SEGMENT_PREFIX + SEGMENT_TIME.format(at) + SEGMENT_SUFFIX);
+        // FileOutputStream rather than a channel: interrupting the thread on shutdown must not close it mid-write
+        segment = new FileOutputStream(path.toFile(), true);
+        segmentBytes = Files.size(path);
+        logger.debug("Writing metrics to {}", path);
+        pruneSegments();
+    }
+
+    private void pruneSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
         } catch (IOException e) {
-            logger.error("Failed to export metrics", e);
+            logger.warn("Closing metrics segment failed: {}", e.getMessage());
         }
+        segment = null;
+        segmentBytes = 0;
     }
 }
@@ -0,0 +1,26 @@
+package com.example.inventoryservice.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/prometheus}: every meter in the registry in the Prometheus text format,
+ * for scraping.
+ */
+@Component
+@WebEndpoint(id = "prometheus")
+public class PrometheusScrapeEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    public PrometheusScrapeEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation(produces = PrometheusTextFormat.CONTENT_TYPE)
+    public String scrape() {
+        return PrometheusTextFormat.scrape(meterRegistry);
+    }
+}
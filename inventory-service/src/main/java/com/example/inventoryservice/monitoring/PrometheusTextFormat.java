@@ -0,0 +1,238 @@
+package com.example.inventoryservice.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders every meter in a registry in the Prometheus text exposition format (version 0.0.4),
+ * named the way Micrometer's Prometheus registry names them: dots become underscores, the
+ * base unit is appended, counters end in {@code _total} and timers are in seconds. Timers and
+ * distribution summaries with histogram buckets become histograms, others summaries; their
+ * client-side percentiles are exported as a separate {@code _percentile} gauge.
+ */
+final class PrometheusTextFormat {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusTextFormat() {
+    }
+
+    static String scrape(MeterRegistry registry) {
+        Map<String, Family> families = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            // The registry's own percentile and bucket gauges; they are rendered with their timer
+            if (meter.getId().syntheticAssociation() != null) continue;
+            meter.use(
+                    gauge -> gauge(families, gauge),
+                    counter -> counter(families, counter),
+                    timer -> timer(families, timer),
+                    summary -> summary(families, summary),
+                    longTaskTimer -> longTaskTimer(families, longTaskTimer),
+                    timeGauge -> timeGauge(families, timeGauge),
+                    functionCounter -> functionCounter(families, functionCounter),
+                    functionTimer -> functionTimer(families, functionTimer),
+                    other -> other(families, other));
+        }
+        StringBuilder out = new StringBuilder(families.size() * 256);
+        families.values().forEach(family -> family.writeTo(out));
+        return out.toString();
+    }
+
+    private static void gauge(Map<String, Family> families, Gauge gauge) {
+        String name = name(gauge.getId(), gauge.getId().getBaseUnit());
+        family(families, name, "gauge", gauge.getId()).add(name, gauge.getId(), gauge.value());
+    }
+
+    private static void timeGauge(Map<String, Family> families, TimeGauge gauge) {
+        String name = name(gauge.getId(), "seconds");
+        family(families, name, "gauge", gauge.getId()).add(name, gauge.getId(), gauge.value(TimeUnit.SECONDS));
+    }
+
+    private static void counter(Map<String, Family> families, Counter counter) {
+        String name = total(name(counter.getId(), counter.getId().getBaseUnit()));
+        family(families, name, "counter", counter.getId()).add(name, counter.getId(), counter.count());
+    }
+
+    private static void functionCounter(Map<String, Family> families, FunctionCounter counter) {
+        String name = total(name(counter.getId(), counter.getId().getBaseUnit()));
+        family(families, name, "counter", counter.getId()).add(name, counter.getId(), counter.count());
+    }
+
+    private static void timer(Map<String, Family> families, Timer timer) {
+        String name = name(timer.getId(), "seconds");
+        distribution(families, name, timer.getId(), timer.takeSnapshot(), TimeUnit.SECONDS);
+        family(families, name + "_max", "gauge", timer.getId()).add(name + "_max", timer.getId(), timer.max(TimeUnit.SECONDS));
+    }
+
+    private static void summary(Map<String, Family> families, DistributionSummary summary) {
+        String name = name(summary.getId(), summary.getId().getBaseUnit());
+        distribution(families, name, summary.getId(), summary.takeSnapshot(), null);
+        family(families, name + "_max", "gauge", summary.getId()).add(name + "_max", summary.getId(), summary.max());
+    }
+
+    private static void functionTimer(Map<String, Family> families, FunctionTimer timer) {
+        String name = name(timer.getId(), "seconds");
+        Family family = family(families, name, "summary", timer.getId());
+        family.add(name + "_count", timer.getId(), timer.count());
+        family.add(name + "_sum", timer.getId(), timer.totalTime(TimeUnit.SECONDS));
+    }
+
+    private static void longTaskTimer(Map<String, Family> families, LongTaskTimer timer) {
+        String name = name(timer.getId(), "seconds");
+        family(families, name + "_active_count", "gauge", timer.getId())
+                .add(name + "_active_count", timer.getId(), timer.activeTasks());
+        family(families, name + "_duration_sum", "gauge", timer.getId())
+                .add(name + "_duration_sum", timer.getId(), timer.duration(TimeUnit.SECONDS));
+        family(families, name + "_max", "gauge", timer.getId())
+                .add(name + "_max", timer.getId(), timer.max(TimeUnit.SECONDS));
+    }
+
+    private static void other(Map<String, Family> families, Meter meter) {
+        String base = name(meter.getId(), meter.getId().getBaseUnit());
+        for (Measurement measurement : meter.measure()) {
+            String name = base + "_" + measurement.getStatistic().getTagValueRepresentation();
+            family(families, name, "untyped", meter.getId()).add(name, meter.getId(), measurement.getValue());
+        }
+    }
+
+    // Bucket counts from Micrometer are already cumulative, as the format requires
+    private static void distribution(Map<String, Family> families, String name, Meter.Id id,
+                                     HistogramSnapshot snapshot, TimeUnit unit) {
+        CountAtBucket[] buckets = snapshot.histogramCounts();
+        Family family = family(families, name, buckets.length > 0 ? "histogram" : "summary", id);
+        for (CountAtBucket bucket : buckets) {
+            double le = unit != null ? bucket.bucket(unit) : bucket.bucket();
+            family.add(name + "_bucket", id, "le", format(le), bucket.count());
+        }
+        if (buckets.length > 0) {
+            family.add(name + "_bucket", id, "le", "+Inf", snapshot.count());
+        }
+        family.add(name + "_count", id, snapshot.count());
+        family.add(name + "_sum", id, unit != null ? snapshot.total(unit) : snapshot.total());
+
+        ValueAtPercentile[] percentiles = snapshot.percentileValues();
+        if (percentiles.length > 0) {
+            Family quantiles = family(families, name + "_percentile", "gauge", id);
+            for (ValueAtPercentile percentile : percentiles) {
+                quantiles.add(name + "_percentile", id, "quantile", format(percentile.percentile()),
+                        unit != null ? percentile.value(unit) : percentile.value());
+            }
+        }
+    }
+
+    private static Family family(Map<String, Family> families, String name, String type, Meter.Id id) {
+        return families.computeIfAbsent(name, n -> new Family(n, type, id.getDescription()));
+    }
+
+    private static String name(Meter.Id id, String unit) {
+        String name = sanitize(id.getName(), true);
+        if (unit != null && !unit.isEmpty()) {
+            String suffix = "_" + sanitize(unit, false);
+            if (!name.endsWith(suffix)) {
+                name += suffix;
+            }
+        }
+        return name;
+    }
+
+    private static String total(String name) {
+        return name.endsWith("_total") ? name : name + "_total";
+    }
+
+    private static String sanitize(String name, boolean allowColon) {
+        StringBuilder out = new StringBuilder(name.length() + 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_'
+                    || (allowColon && c == ':') || (i > 0 && c >= '0' && c <= '9');
+            if (i == 0 && c >= '0' && c <= '9') {
+                out.append('_').append(c);
+            } else {
+                out.append(valid ? c : '_');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private static String escape(String value, boolean quoted) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '"' -> out.append(quoted ? "\\\"" : "\"");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String type;
+        private final String help;
+        private final List<String> samples = new ArrayList<>();
+
+        private Family(String name, String type, String help) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+        }
+
+        private void add(String sample, Meter.Id id, double value) {
+            add(sample, id, null, null, value);
+        }
+
+        private void add(String sample, Meter.Id id, String extraLabel, String extraValue, double value) {
+            StringBuilder line = new StringBuilder(sample);
+            List<Tag> tags = id.getTags();
+            if (!tags.isEmpty() || extraLabel != null) {
+                line.append('{');
+                String separator = "";
+                for (Tag tag : tags) {
+                    line.append(separator).append(sanitize(tag.getKey(), false))
+                            .append("=\"").append(escape(tag.getValue(), true)).append('"');
+                    separator = ",";
+                }
+                if (extraLabel != null) {
+                    line.append(separator).append(extraLabel).append("=\"").append(extraValue).append('"');
+                }
+                line.append('}');
+            }
+            samples.add(line.append(' ').append(format(value)).toString());
+        }
+
+        private void writeTo(StringBuilder out) {
+            out.append("# HELP ").append(name).append(' ').append(escape(help != null ? help : name, false)).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            samples.forEach(sample -> out.append(sample).append('\n'));
+        }
+    }
+}
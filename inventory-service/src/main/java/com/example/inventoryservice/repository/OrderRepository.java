@@ -1,9 +1,19 @@
 package com.example.inventoryservice.repository;
 
 import com.example.inventoryservice.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, String> {
+
+    // Records from before processedAt was tracked count as expired
+    @Query("SELECT o.orderId FROM Order o WHERE o.processedAt < :cutoff OR o.processedAt IS NULL")
+    List<String> findIdsProcessedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
@@ -1,9 +1,61 @@
 package com.example.inventoryservice.repository;
 
 import com.example.inventoryservice.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Query space of the native stock statements; matches no cached entity or query
+    String STOCK_SPACE = "product_stock";
+
+    /**
+     * Decrement stock in one statement, only if enough is left after setting aside
+     * {@code reserved} units held for other orders. Returns the number of rows updated: 0 means
+     * the product is missing or has insufficient stock. The version is bumped so entity-based
+     * writers still detect the change through optimistic locking.
+     * <p>
+     * Native SQL tagged with its own query space: as a JPQL bulk update it would clear every
+     * cached product on each order. Callers invalidate the one product they change through
+     * {@link com.example.inventoryservice.service.ProductCache#lockForStockUpdate} first.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity - :quantity, version = version + 1 " +
+                   "WHERE id = :id AND stock_quantity - :reserved >= :quantity", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("reserved") int reserved);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity + :quantity, version = version + 1 " +
+                   "WHERE id = :id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Whole catalog, kept in the query cache until a product row changes
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
+
+    @Query("SELECT p.category, p.price, p.rating FROM Product p")
+    List<Object[]> findFacetValues();
+
+    @Query("SELECT p.id, p.name, p.description, p.category FROM Product p")
+    List<Object[]> findSearchableText();
+
+    @Query("SELECT p.id FROM Product p WHERE p.id > :after ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT p.id, p.stockStripes FROM Product p WHERE p.stockStripes IS NOT NULL")
+    List<Object[]> findStripedProducts();
 }
@@ -0,0 +1,33 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.model.StockEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockEventRepository extends JpaRepository<StockEvent, Long> {
+
+    @Query("SELECT e FROM StockEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<StockEvent> findUnpublished(Pageable pageable);
+
+    @Query("SELECT e FROM StockEvent e WHERE e.position > :cursor ORDER BY e.position")
+    List<StockEvent> findPublishedAfter(@Param("cursor") long cursor, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM StockEvent e")
+    long findLastPosition();
+
+    /**
+     * Delete published events up to {@code horizon} that a later event for the same product
+     * supersedes. The latest event of every product survives, however old.
+     */
+    @Modifying
+    @Query("DELETE FROM StockEvent e WHERE e.position <= :horizon AND EXISTS " +
+           "(SELECT 1 FROM StockEvent later WHERE later.productId = e.productId AND later.position > e.position)")
+    int deleteSupersededUpTo(@Param("horizon") long horizon);
+}
@@ -0,0 +1,57 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.model.StockLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockLedgerRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+    @Query("SELECT e FROM StockLedgerEntry e WHERE e.compacted = false ORDER BY e.id")
+    List<StockLedgerEntry> findUncompacted(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE StockLedgerEntry e SET e.compacted = true WHERE e.id IN :ids")
+    int markCompacted(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Snapshot plus the entries not folded into it, in one statement so that a compaction
+     * committing in between cannot make an entry count twice or not at all
+     */
+    @Query(value = "SELECT COALESCE((SELECT s.quantity FROM stock_snapshots s WHERE s.product_id = :productId), 0) " +
+                   "+ COALESCE((SELECT SUM(e.quantity) FROM stock_ledger e " +
+                   "WHERE e.product_id = :productId AND e.compacted = FALSE), 0)", nativeQuery = true)
+    long derivedStock(@Param("productId") Long productId);
+
+    /**
+     * (product ID, stock, derived stock) of each of {@code productIds} whose stock, the stock
+     * column or the sum of its stripes for a hot product, differs from the stock derived from
+     * its ledger. One statement, so both sides are read from the same committed state.
+     */
+    @Query(value = "SELECT id, stock, derived FROM (SELECT p.id AS id, " +
+                   "CASE WHEN p.stock_stripes IS NULL THEN p.stock_quantity " +
+                   "ELSE COALESCE((SELECT SUM(t.quantity) FROM stock_stripes t WHERE t.product_id = p.id), 0) END AS stock, " +
+                   "COALESCE((SELECT s.quantity FROM stock_snapshots s WHERE s.product_id = p.id), 0) " +
+                   "+ COALESCE((SELECT SUM(e.quantity) FROM stock_ledger e " +
+                   "WHERE e.product_id = p.id AND e.compacted = FALSE), 0) AS derived " +
+                   "FROM products p WHERE p.id IN :productIds) checked WHERE stock <> derived", nativeQuery = true)
+    List<Object[]> findMismatches(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT e FROM StockLedgerEntry e WHERE e.productId = :productId AND e.id < :before ORDER BY e.id DESC")
+    List<StockLedgerEntry> findHistory(@Param("productId") Long productId, @Param("before") long before, Pageable pageable);
+
+    @Query("SELECT e.id FROM StockLedgerEntry e WHERE e.compacted = true AND e.recordedAt < :cutoff")
+    List<Long> findCompactedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StockLedgerEntry e WHERE e.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
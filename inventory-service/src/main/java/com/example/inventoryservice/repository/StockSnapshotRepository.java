@@ -0,0 +1,27 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    @Query("SELECT p.id FROM Product p WHERE NOT EXISTS (SELECT 1 FROM StockSnapshot s WHERE s.productId = p.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM StockLedgerEntry e WHERE e.productId = p.id)")
+    List<Long> findProductsWithoutHistory();
+
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    // Left behind when a compaction folds entries of a product deleted meanwhile
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE NOT EXISTS (SELECT 1 FROM Product p WHERE p.id = s.productId)")
+    int deleteOrphaned();
+}
@@ -0,0 +1,41 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.model.StockStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockStripeRepository extends JpaRepository<StockStripe, Long> {
+
+    List<StockStripe> findByProductIdOrderByStripeIndex(Long productId);
+
+    /**
+     * Take {@code quantity} from one stripe only if it holds that much. Returns 0 when the
+     * stripe is missing or short, leaving it untouched.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockStripe s SET s.quantity = s.quantity - :quantity " +
+           "WHERE s.productId = :productId AND s.stripeIndex = :stripe AND s.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockStripe s SET s.quantity = s.quantity + :quantity " +
+           "WHERE s.productId = :productId AND s.stripeIndex = :stripe")
+    int increment(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM StockStripe s WHERE s.productId = :productId")
+    long totalStock(@Param("productId") Long productId);
+
+    @Query("SELECT s.productId, SUM(s.quantity) FROM StockStripe s WHERE s.productId IN :productIds GROUP BY s.productId")
+    List<Object[]> totalStockByProduct(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StockStripe s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
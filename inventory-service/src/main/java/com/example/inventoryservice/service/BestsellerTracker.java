@@ -0,0 +1,164 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.BestsellersDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Approximate best-selling products over the last hour and the last day, by units sold in
+ * processed orders. Each window is split into time slices, and each slice keeps a
+ * {@link SpaceSavingSketch} of {@code inventory.bestsellers.counters} counters, so memory is
+ * fixed however large the catalog grows. A window's leaderboard merges its slices; it slides
+ * a slice at a time, so it covers between the window minus one slice and the full window.
+ * <p>
+ * Leaderboards are recomputed on a schedule and reads return the last one, so serving them
+ * costs nothing per request.
+ */
+@Service
+public class BestsellerTracker {
+
+    public static final int MAX_LIMIT = 50;
+
+    public enum Window {
+        HOUR(Duration.ofHours(1), 12),
+        DAY(Duration.ofDays(1), 24);
+
+        private final long sliceMillis;
+        private final int slices;
+
+        Window(Duration length, int slices) {
+            this.sliceMillis = length.toMillis() / slices;
+            this.slices = slices;
+        }
+
+        public static Window of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Window must be hour or day");
+            }
+        }
+    }
+
+    private final Map<Window, SlidingTopK> windows = new EnumMap<>(Window.class);
+    private volatile Map<Window, BestsellersDTO> leaderboards = new EnumMap<>(Window.class);
+
+    public BestsellerTracker(@Value("${inventory.bestsellers.counters:256}") int counters) {
+        if (counters < 1) {
+            throw new IllegalArgumentException("inventory.bestsellers.counters must be at least 1");
+        }
+        for (Window window : Window.values()) {
+            windows.put(window, new SlidingTopK(window, counters));
+        }
+        refresh();
+    }
+
+    /**
+     * Count the units of an order once the caller's transaction commits, so rolled back and
+     * rejected orders are never counted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(Map<Long, Integer> quantities) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(quantities, System.currentTimeMillis());
+            }
+        });
+    }
+
+    public BestsellersDTO bestsellers(String window, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        BestsellersDTO leaderboard = leaderboards.get(Window.of(window));
+        BestsellersDTO dto = new BestsellersDTO();
+        dto.setWindow(leaderboard.getWindow());
+        dto.setComputedAt(leaderboard.getComputedAt());
+        List<BestsellersDTO.Entry> items = leaderboard.getItems();
+        dto.setItems(items.subList(0, Math.min(limit, items.size())));
+        return dto;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.bestsellers.refresh-interval-ms:5000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        LocalDateTime computedAt = LocalDateTime.now();
+        Map<Window, BestsellersDTO> refreshed = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            BestsellersDTO dto = new BestsellersDTO();
+            dto.setWindow(window.name().toLowerCase(Locale.ROOT));
+            dto.setComputedAt(computedAt);
+            dto.setItems(top(window, now));
+            refreshed.put(window, dto);
+        }
+        leaderboards = refreshed;
+    }
+
+    private synchronized void add(Map<Long, Integer> quantities, long now) {
+        windows.values().forEach(window -> window.add(quantities, now));
+    }
+
+    private synchronized List<BestsellersDTO.Entry> top(Window window, long now) {
+        return windows.get(window).top(now, MAX_LIMIT);
+    }
+
+    /**
+     * A ring of per-slice sketches. A slot is cleared when the clock comes round to it again,
+     * so a slice that saw no orders for a whole window is never merged into it.
+     */
+    private static final class SlidingTopK {
+        private final long sliceMillis;
+        private final SpaceSavingSketch[] sketches;
+        private final long[] sliceIds;  // slice held by each slot: epoch millis / sliceMillis
+
+        private SlidingTopK(Window window, int counters) {
+            this.sliceMillis = window.sliceMillis;
+            this.sketches = new SpaceSavingSketch[window.slices];
+            this.sliceIds = new long[window.slices];
+            for (int i = 0; i < sketches.length; i++) {
+                sketches[i] = new SpaceSavingSketch(counters);
+            }
+            Arrays.fill(sliceIds, -1);
+        }
+
+        private void add(Map<Long, Integer> quantities, long now) {
+            long slice = now / sliceMillis;
+            int slot = (int) (slice % sketches.length);
+            if (sliceIds[slot] != slice) {
+                sketches[slot].clear();
+                sliceIds[slot] = slice;
+            }
+            quantities.forEach((productId, quantity) -> sketches[slot].add(productId, quantity));
+        }
+
+        private List<BestsellersDTO.Entry> top(long now, int k) {
+            long current = now / sliceMillis;
+            Map<Long, Long> totals = new HashMap<>();
+            for (int slot = 0; slot < sketches.length; slot++) {
+                if (sliceIds[slot] > current - sketches.length) {
+                    sketches[slot].addTo(totals);
+                }
+            }
+            return totals.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(k)
+                    .map(entry -> new BestsellersDTO.Entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.BoughtTogetherDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Frequently bought together": for each product, the products that most often appear in the
+ * same processed order, updated as orders commit. Each product keeps a fixed number of
+ * neighbour slots ({@code inventory.co-purchase.neighbours}); a new neighbour of a product
+ * whose slots are all taken replaces the least frequent one and inherits its count
+ * (Space-Saving), so the frequent companions stay and memory is a flat
+ * products x neighbours table of primitives, with no per-pair objects.
+ * <p>
+ * Counts live in memory only and start from zero when the service starts. A lookup reads
+ * a single row of at most {@code neighbours} entries.
+ */
+@Service
+public class CoPurchaseIndex {
+
+    public static final int MAX_LIMIT = 20;
+    // Only the first products of a larger order are paired, so one order costs at most ~2,500 updates
+    private static final int MAX_PAIRED_PRODUCTS = 50;
+
+    private final int neighbours;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Row r holds the neighbours of one product in slots
+    // [r * neighbours, r * neighbours + sizes[r])
+    private final LongIntHashMap rows = new LongIntHashMap(1024);
+    private long[] neighbourIds;
+    private int[] counts;
+    private int[] sizes;
+    private int rowCount;
+
+    public CoPurchaseIndex(MeterRegistry meterRegistry,
+                           @Value("${inventory.co-purchase.neighbours:32}") int neighbours) {
+        if (neighbours < 1) {
+            throw new IllegalArgumentException("inventory.co-purchase.neighbours must be at least 1");
+        }
+        this.neighbours = neighbours;
+        this.neighbourIds = new long[1024 * neighbours];
+        this.counts = new int[1024 * neighbours];
+        this.sizes = new int[1024];
+        Gauge.builder("inventory.co-purchase.products", this, CoPurchaseIndex::trackedProducts)
+                .description("Products with co-purchase neighbours tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count the order's products as bought together once the caller's transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(Collection<Long> productIds) {
+        if (productIds.size() < 2) return;
+        long[] products = productIds.stream().distinct().limit(MAX_PAIRED_PRODUCTS).mapToLong(Long::longValue).toArray();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(products);
+            }
+        });
+    }
+
+    public BoughtTogetherDTO boughtTogether(Long productId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        long[] ids;
+        int[] orders;
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int row = rows.get(productId);
+            int size = row != LongIntHashMap.MISSING ? sizes[row] : 0;
+            int from = row * neighbours;
+            ids = size > 0 ? Arrays.copyOfRange(neighbourIds, from, from + size) : new long[0];
+            orders = size > 0 ? Arrays.copyOfRange(counts, from, from + size) : new int[0];
+        } finally {
+            read.unlock();
+        }
+
+        List<BoughtTogetherDTO.Entry> items = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            items.add(new BoughtTogetherDTO.Entry(ids[i], orders[i]));
+        }
+        items.sort(Comparator.comparing(BoughtTogetherDTO.Entry::getOrders).reversed()
+                .thenComparing(BoughtTogetherDTO.Entry::getProductId));
+        BoughtTogetherDTO dto = new BoughtTogetherDTO();
+        dto.setProductId(productId);
+        dto.setItems(items.subList(0, Math.min(limit, items.size())));
+        return dto;
+    }
+
+    private void add(long[] products) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            for (long product : products) {
+                int row = rowFor(product);
+                for (long other : products) {
+                    if (other != product) {
+                        increment(row, other);
+                    }
+                }
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void increment(int row, long neighbour) {
+        int from = row * neighbours;
+        int to = from + sizes[row];
+        int smallest = from;
+        for (int slot = from; slot < to; slot++) {
+            if (neighbourIds[slot] == neighbour) {
+                counts[slot]++;
+                return;
+            }
+            if (counts[slot] < counts[smallest]) {
+                smallest = slot;
+            }
+        }
+        if (sizes[row] < neighbours) {
+            neighbourIds[to] = neighbour;
+            counts[to] = 1;
+            sizes[row]++;
+        } else {
+            neighbourIds[smallest] = neighbour;
+            counts[smallest]++;
+        }
+    }
+
+    private int rowFor(long productId) {
+        int row = rows.get(productId);
+        if (row != LongIntHashMap.MISSING) return row;
+        if (rowCount == sizes.length) {
+            sizes = Arrays.copyOf(sizes, rowCount * 2);
+            neighbourIds = Arrays.copyOf(neighbourIds, rowCount * 2 * neighbours);
+            counts = Arrays.copyOf(counts, rowCount * 2 * neighbours);
+        }
+        row = rowCount++;
+        rows.put(productId, row);
+        return row;
+    }
+
+    private int trackedProducts() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return rowCount;
+        } finally {
+            read.unlock();
+        }
+    }
+}
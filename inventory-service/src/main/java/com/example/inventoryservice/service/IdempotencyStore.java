@@ -0,0 +1,149 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Order;
+import com.example.inventoryservice.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Results of processed orders by order ID, so a retried order gets its original result back
+ * without being processed again. The orders table is the record; recent results are also
+ * held in memory, so a retry that finds them there needs neither a transaction nor a query.
+ * <p>
+ * Results are kept for at least {@code inventory.idempotency.ttl} and then purged in batches
+ * in the background; after that the same order ID counts as a new order. Orders rejected
+ * for stock are not stored, since a retry may succeed once stock is back.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    // Replayed for records written before results were stored
+    private static final String PROCESSED_WITHOUT_RESPONSE = "Order already processed successfully.";
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Cache<String, String> recent;
+    private final Counter purgedCounter;
+
+    public IdempotencyStore(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${inventory.idempotency.max-cached:100000}") long maxCached,
+                            @Value("${inventory.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        if (purgeBatchSize < 1) {
+            throw new IllegalArgumentException("inventory.idempotency.purge-batch-size must be at least 1");
+        }
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxCached)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotency");
+        this.purgedCounter = Counter.builder("inventory.idempotency.purged")
+                .description("Expired order idempotency records purged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The result of the order if it is held in memory, else null. Never touches the database,
+     * so a null only means the caller has to go through {@link #find}.
+     */
+    public String findRecent(String orderId) {
+        return recent.getIfPresent(orderId);
+    }
+
+    /**
+     * The result of the order if it has been processed. Call inside the order's transaction:
+     * it also sees orders recorded earlier in that transaction. This check alone does not stop
+     * a concurrent duplicate, since hot products are only locked shared; callers serialize
+     * orders by ID until the transaction has committed or rolled back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<String> find(String orderId) {
+        String cached = recent.getIfPresent(orderId);
+        if (cached != null) return Optional.of(cached);
+        return orderRepository.findById(orderId).map(order -> {
+            String response = order.getResponse() != null ? order.getResponse() : PROCESSED_WITHOUT_RESPONSE;
+            cacheAfterCommit(orderId, response);
+            return response;
+        });
+    }
+
+    /**
+     * Record the result of a processed order in the caller's transaction. It is cached once
+     * that commits and discarded with it on rollback.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String orderId, String response) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setStatus("PROCESSED");
+        order.setResponse(response);
+        order.setProcessedAt(LocalDateTime.now());
+        orderRepository.save(order);
+        cacheAfterCommit(orderId, response);
+    }
+
+    /**
+     * Delete records older than the TTL, one short transaction per batch so the orders table
+     * is never locked for long
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int purged = 0;
+        int batch;
+        do {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<String> orderIds = orderRepository.findIdsProcessedBefore(cutoff, PageRequest.of(0, purgeBatchSize));
+                if (orderIds.isEmpty()) return 0;
+                orderRepository.deleteAllByIdInBatch(orderIds);
+                // An entry cached after its record was written could otherwise outlive the record
+                recent.invalidateAll(orderIds);
+                return orderIds.size();
+            });
+            batch = deleted != null ? deleted : 0;
+            purged += batch;
+        } while (batch == purgeBatchSize);
+        if (purged > 0) {
+            purgedCounter.increment(purged);
+            logger.debug("Purged {} order idempotency records processed before {}", purged, cutoff);
+        }
+    }
+
+    private void cacheAfterCommit(String orderId, String response) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.put(orderId, response);
+            }
+        });
+    }
+}
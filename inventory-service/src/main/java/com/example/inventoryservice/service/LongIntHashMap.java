@@ -0,0 +1,84 @@
+package com.example.inventoryservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to non-negative int values held in two flat arrays, with linear probing,
+ * so lookups neither box keys nor allocate. Entries can be added and updated but not removed.
+ * Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;  // MISSING marks a free slot
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); values[slot] != MISSING; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+        }
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative");
+        }
+        // Kept at most three quarters full, so probe sequences stay short
+        if ((size + 1) * 4L > keys.length * 3L) {
+            resize(keys.length * 2);
+        }
+        if (insert(keys, values, key, value)) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        Arrays.fill(newValues, MISSING);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != MISSING) {
+                insert(newKeys, newValues, keys[slot], values[slot]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    // True if the key was new
+    private static boolean insert(long[] keys, int[] values, long key, int value) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        return true;
+    }
+
+    // Sequential IDs would otherwise fill neighbouring slots and make probe runs long
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.OrderRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Group commit for order requests. Callers enqueue an order and block on its own result;
+ * a single worker thread collects whatever arrives within {@code maxWait} (or until
+ * {@code maxBatchSize} orders are queued) and hands the whole batch to {@code batchHandler},
+ * which must return one result per order, in order. If the batch throws, nothing from it was
+ * committed and each order is retried alone through {@code orderHandler}, so a bad order
+ * fails only its own caller.
+ * <p>
+ * Orders are applied by one thread, so a batch never competes with another batch for the
+ * same rows. When the queue is full the caller runs its order on its own thread instead.
+ */
+public class OrderBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatcher.class);
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Function<List<OrderRequest>, List<String>> batchHandler;
+    private final Function<OrderRequest, String> orderHandler;
+    private final BlockingQueue<PendingOrder> queue;
+    private final DistributionSummary batchSizes;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public OrderBatcher(int maxBatchSize, Duration maxWait, int queueCapacity,
+                        Function<List<OrderRequest>, List<String>> batchHandler,
+                        Function<OrderRequest, String> orderHandler, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchHandler = batchHandler;
+        this.orderHandler = orderHandler;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("inventory.orders.batch.size")
+                .description("Orders applied per group-commit transaction")
+                .register(meterRegistry);
+        this.worker = new Thread(this::run, "order-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue the order and wait for its result. Returns null if the queue is full, in which
+     * case the caller should process the order itself.
+     */
+    public String submit(OrderRequest orderRequest) {
+        PendingOrder pending = new PendingOrder(orderRequest);
+        if (!running || !queue.offer(pending)) {
+            return null;
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        List<PendingOrder> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.result.completeExceptionally(new IllegalStateException("Order batching is shutting down")));
+    }
+
+    private void run() {
+        while (running) {
+            List<PendingOrder> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            apply(batch);
+        }
+    }
+
+    private List<PendingOrder> nextBatch() throws InterruptedException {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void apply(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<String> results = batchHandler.apply(batch.stream().map(p -> p.request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Order batch of {} rolled back, applying orders one by one: {}", batch.size(), e.getMessage());
+            for (PendingOrder pending : batch) {
+                try {
+                    pending.result.complete(orderHandler.apply(pending.request));
+                } catch (RuntimeException orderFailure) {
+                    pending.result.completeExceptionally(orderFailure);
+                }
+            }
+        }
+    }
+
+    private static final class PendingOrder {
+        private final OrderRequest request;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private PendingOrder(OrderRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -1,38 +1,58 @@
 package com.example.inventoryservice.service;
 
 import com.example.inventoryservice.dto.OrderRequest;
-import com.example.inventoryservice.model.Order;
-import com.example.inventoryservice.model.Product;
-import com.example.inventoryservice.repository.OrderRepository;
+import com.example.inventoryservice.model.StockLedgerEntry;
 import com.example.inventoryservice.repository.ProductRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
     private final ProductRepository productRepository;
-    private final OrderRepository orderRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final StripedStockService stripedStockService;
+    private final ProductCache productCache;
+    private final StockEventService stockEventService;
+    private final StockLedgerService stockLedgerService;
+    private final BestsellerTracker bestsellerTracker;
+    private final CoPurchaseIndex coPurchaseIndex;
     private final Counter orderProcessedCounter;
     private final Counter stockUpdateCounter;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public OrderService(ProductRepository productRepository, OrderRepository orderRepository, MeterRegistry meterRegistry) {
+    public OrderService(ProductRepository productRepository, IdempotencyStore idempotencyStore,
+                        StripedStockService stripedStockService, ProductCache productCache,
+                        StockEventService stockEventService, StockLedgerService stockLedgerService,
+                        BestsellerTracker bestsellerTracker, CoPurchaseIndex coPurchaseIndex,
+                        MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
-        this.orderRepository = orderRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.stripedStockService = stripedStockService;
+        this.productCache = productCache;
+        this.stockEventService = stockEventService;
+        this.stockLedgerService = stockLedgerService;
+        this.bestsellerTracker = bestsellerTracker;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.meterRegistry = meterRegistry;
         this.orderProcessedCounter = Counter.builder("inventory.orders.processed")
                 .description("Number of orders processed")
                 .register(meterRegistry);
@@ -43,6 +63,26 @@ public class OrderService {
 
     @Transactional
     public String processOrder(OrderRequest orderRequest) {
+        return processOrder(orderRequest, Map.of());
+    }
+
+    /**
+     * Process an order, leaving {@code reservedByOthers} units of each product untouched
+     * because they are held by other orders' reservations.
+     */
+    @Transactional
+    public String processOrder(OrderRequest orderRequest, Map<Long, Integer> reservedByOthers) {
+        return processOrder(orderRequest, reservedByOthers, Set.of());
+    }
+
+    /**
+     * As above, for a caller that holds the product lock only shared for the hot products in
+     * {@code sharedProducts}. If such an order is rejected its transaction is rolled back
+     * rather than compensated, since giving stock back could lock stripes out of order; the
+     * caller should retry it under exclusive locks.
+     */
+    @Transactional
+    public String processOrder(OrderRequest orderRequest, Map<Long, Integer> reservedByOthers, Set<Long> sharedProducts) {
         // Minimal validation in service layer
         if (orderRequest.getOrderId() == null || orderRequest.getOrderId().trim().isEmpty()) {
             throw new IllegalArgumentException("Order ID is required for idempotency");
@@ -53,70 +93,127 @@ public class OrderService {
 
         logger.info("Processing order with ID: {}", orderRequest.getOrderId());
 
-        // Idempotency check
-        Optional<Order> existing = orderRepository.findById(orderRequest.getOrderId());
-        if (existing.isPresent()) {
-            if ("PROCESSED".equals(existing.get().getStatus())) {
-                logger.info("Idempotent order already processed: {}", orderRequest.getOrderId());
-                return "Order already processed successfully.";
+        // Idempotency check: a processed order gets its original result back. Rejected
+        // orders are not recorded, so a retry is processed again
+        Optional<String> previous = idempotencyStore.find(orderRequest.getOrderId());
+        if (previous.isPresent()) {
+            logger.info("Idempotent order already processed: {}", orderRequest.getOrderId());
+            return previous.get();
+        }
+
+        // Merge duplicate lines and apply them in product ID order, so concurrent orders
+        // lock rows in the same order and cannot deadlock
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderRequest.OrderItem item : orderRequest.getItems()) {
+            // Minimal item validation
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product: " + item.getProductId());
             }
-            // Failed before, allow retry
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
 
-        int retries = 1;  // optimistic lock retry
-        while (retries >= 0) {
-            try {
-                Set<Long> productIds = orderRequest.getItems().stream()
-                        .map(OrderRequest.OrderItem::getProductId)
-                        .collect(Collectors.toSet());
-                List<Product> products = productRepository.findAllById(productIds);
-                Map<Long, Product> productMap = products.stream()
-                        .collect(Collectors.toMap(Product::getId, p -> p));
-                for (OrderRequest.OrderItem item : orderRequest.getItems()) {
-                    // Minimal item validation
-                    if (item.getQuantity() == null || item.getQuantity() <= 0) {
-                        throw new IllegalArgumentException("Invalid quantity for product: " + item.getProductId());
-                    }
-                    Product product = productMap.get(item.getProductId());
-                    if (product != null) {
-                        if (product.getStockQuantity() >= item.getQuantity()) {
-                            int newStock = product.getStockQuantity() - item.getQuantity();
-                            product.setStockQuantity(newStock);
-                            stockUpdateCounter.increment();
-                            logger.debug("Stock updated for product {}: new stock {}", item.getProductId(), newStock);
-                        } else {
-                            logger.warn("Insufficient stock for product ID: {}", item.getProductId());
-                            saveOrderStatus(orderRequest.getOrderId(), "FAILED");
-                            return "Insufficient stock for product ID: " + item.getProductId();
-                        }
-                    } else {
-                        logger.warn("Product not found: {}", item.getProductId());
-                        saveOrderStatus(orderRequest.getOrderId(), "FAILED");
-                        return "Product not found: " + item.getProductId();
-                    }
-                }
-                productRepository.saveAll(products);
-                orderProcessedCounter.increment();
-                saveOrderStatus(orderRequest.getOrderId(), "PROCESSED");
-                logger.info("Order processed successfully");
-                return "Order processed successfully. Inventory updated.";
-            } catch (ObjectOptimisticLockingFailureException e) {
-                logger.warn("Optimistic lock failure, retrying: {}", e.getMessage());
-                retries--;
-                if (retries < 0) {
-                    saveOrderStatus(orderRequest.getOrderId(), "FAILED");
-                    throw e;  // fail after retry
-                }
+        // Each line is a guarded single-statement decrement: it either applies in full or
+        // touches nothing, and the row lock it takes serializes concurrent orders for that
+        // product without optimistic-lock collisions
+        Map<Long, Integer> applied = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Long productId = line.getKey();
+            int quantity = line.getValue();
+            int reserved = reservedByOthers.getOrDefault(productId, 0);
+            if (decrementStock(orderRequest.getOrderId(), productId, quantity, reserved, sharedProducts.contains(productId))) {
+                applied.put(productId, quantity);
+                stockUpdateCounter.increment();
+                logger.debug("Stock decremented for product {} by {}", productId, quantity);
+                continue;
+            }
+
+            // The caller's retry under exclusive locks settles the order, and counts it
+            if (!sharedProducts.isEmpty()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return "Insufficient stock for product ID: " + productId;
             }
+            // All-or-nothing: give back the lines already taken (their rows are still locked by us)
+            applied.forEach((id, taken) -> incrementStock(orderRequest.getOrderId(), id, taken));
+            if (productRepository.existsById(productId)) {
+                logger.warn("Insufficient stock for product ID: {}", productId);
+                orderRejectedCounter("insufficient_stock").increment();
+                return "Insufficient stock for product ID: " + productId;
+            }
+            logger.warn("Product not found: {}", productId);
+            orderRejectedCounter("product_not_found").increment();
+            return "Product not found: " + productId;
+        }
+
+        // Published to the stock feed, kept in the ledger and counted as sales and co-purchases only if this transaction commits
+        applied.forEach((productId, quantity) -> {
+            stockEventService.record(productId, -quantity, "ORDER", orderRequest.getOrderId());
+            stockLedgerService.record(productId, StockLedgerEntry.Type.SALE, -quantity, orderRequest.getOrderId());
+        });
+        bestsellerTracker.recordSale(applied);
+        coPurchaseIndex.recordOrder(applied.keySet());
+        String result = "Order processed successfully. Inventory updated.";
+        idempotencyStore.record(orderRequest.getOrderId(), result);
+        orderProcessedCounter.increment();
+        logger.info("Order processed successfully");
+        return result;
+    }
+
+    /**
+     * Apply several orders in one transaction, one result per order in request order.
+     * An order that fails on stock is compensated without affecting the others; an exception
+     * rolls back the whole batch and the caller should retry the orders one by one. Orders
+     * repeating an order ID already applied earlier in the same batch see it as processed,
+     * exactly as they would across separate transactions.
+     */
+    @Transactional
+    public List<String> processOrders(List<OrderRequest> orderRequests, Map<Long, Integer> reservedByOthers) {
+        List<String> results = new ArrayList<>(orderRequests.size());
+        for (OrderRequest orderRequest : orderRequests) {
+            results.add(processOrder(orderRequest, reservedByOthers));
         }
-        saveOrderStatus(orderRequest.getOrderId(), "FAILED");
-        return "Order processing failed due to concurrency";
+        return results;
     }
 
-    private void saveOrderStatus(String orderId, String status) {
-        Order order = new Order();
-        order.setOrderId(orderId);
-        order.setStatus(status);
-        orderRepository.save(order);
+    // Hot products draw from their stock stripes instead of the product row
+    boolean decrementStock(String orderId, Long productId, int quantity, int reserved, boolean shared) {
+        if (stripedStockService.isStriped(productId)) {
+            return stockUpdateTimer("decrement", "striped").record(
+                    () -> stripedStockService.decrement(productId, orderId, quantity, reserved, shared));
+        }
+        return stockUpdateTimer("decrement", "row").record(() -> {
+            productCache.lockForStockUpdate(productId);
+            return productRepository.decrementStock(productId, quantity, reserved) == 1;
+        });
+    }
+
+    void incrementStock(String orderId, Long productId, int quantity) {
+        if (stripedStockService.isStriped(productId)) {
+            stockUpdateTimer("increment", "striped").record(
+                    () -> stripedStockService.increment(productId, orderId, quantity));
+        } else {
+            stockUpdateTimer("increment", "row").record(() -> {
+                productCache.lockForStockUpdate(productId);
+                productRepository.incrementStock(productId, quantity);
+            });
+        }
+    }
+
+    // Includes waiting for the row or stripe lock held by concurrent orders
+    private Timer stockUpdateTimer(String operation, String mode) {
+        return Timer.builder("inventory.stock.update")
+                .description("Time to apply one stock change")
+                .tags("operation", operation, "mode", mode)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private Counter orderRejectedCounter(String reason) {
+        return Counter.builder("inventory.orders.rejected")
+                .description("Orders rejected without changing stock")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 }
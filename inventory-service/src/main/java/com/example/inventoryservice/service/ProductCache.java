@@ -0,0 +1,84 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Second-level cache access for {@link Product} beyond what Spring Data does on its own:
+ * batch lookups that are served from the cache where possible, and coherent invalidation
+ * around the guarded stock statements in {@link com.example.inventoryservice.repository.ProductRepository}.
+ */
+@Component
+public class ProductCache {
+
+    private final EntityManager entityManager;
+
+    public ProductCache(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Products by ID, taking cached ones from the second-level cache and loading only the rest
+     * in one query. Unknown IDs are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findAllById(Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                // Without an explicit cache mode multi-load skips the second-level cache
+                .with(CacheMode.NORMAL)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Call inside the transaction before a stock statement on the product's row. The stock
+     * statements run as native SQL outside Hibernate's view of the products table (otherwise
+     * each one would clear every cached product), so this does what Hibernate does for an
+     * entity update, for this product only: its cache entry is soft-locked until the
+     * transaction ends, and no transaction that started earlier can put the old row back
+     * afterwards. Cached queries over the products table are invalidated the same way.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForStockUpdate(Long productId) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        String[] spaces = (String[]) persister.getQuerySpaces();
+        // Either cache may be switched off in configuration
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+        EntityDataAccess access = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        if (timestamps == null && access == null) return;
+
+        if (timestamps != null) {
+            timestamps.preInvalidate(spaces, session);
+        }
+        Object key = access != null ? access.generateCacheKey(productId, persister, factory, session.getTenantIdentifier()) : null;
+        SoftLock lock = access != null ? access.lockItem(session, key, null) : null;
+        session.getActionQueue().registerProcess((success, completed) -> {
+            if (access != null) {
+                access.unlockItem(completed, key, lock);
+            }
+            if (timestamps != null) {
+                timestamps.invalidate(spaces, completed);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor for catalog pages. It records the sort it belongs to and the sort value
+ * and ID of the last product on the page, base64url-encoded; clients pass it back unchanged.
+ */
+final class ProductCursor {
+
+    enum SortKey {
+        ID("id", Product::getId, Long::valueOf),
+        PRICE("price", Product::getPrice, Double::valueOf),
+        RATING("rating", Product::getRating, Double::valueOf),
+        REVIEW_COUNT("reviewCount", Product::getReviewCount, Integer::valueOf),
+        NAME("name", Product::getName, value -> value);
+
+        private final String property;
+        private final Function<Product, Object> extractor;
+        private final Function<String, Object> parser;
+
+        SortKey(String property, Function<Product, Object> extractor, Function<String, Object> parser) {
+            this.property = property;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        String property() {
+            return property;
+        }
+
+        static SortKey of(String property) {
+            for (SortKey key : values()) {
+                if (key.property.equalsIgnoreCase(property)) return key;
+            }
+            throw new IllegalArgumentException("Unsupported sort '" + property + "'; use id, price, rating, reviewCount or name");
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final Object value;
+
+    private ProductCursor(SortKey sortKey, Sort.Direction direction, Long id, Object value) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    static ProductCursor after(Product last, SortKey sortKey, Sort.Direction direction) {
+        return new ProductCursor(sortKey, direction, last.getId(), sortKey.extractor.apply(last));
+    }
+
+    static ProductCursor decode(String cursor, SortKey sortKey, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!parts[0].equals(sortKey.property) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor belongs to a different sort order");
+        }
+        try {
+            Long id = Long.valueOf(parts[2]);
+            return new ProductCursor(sortKey, direction, id, sortKey == SortKey.ID ? id : sortKey.parser.apply(parts[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    String encode() {
+        String raw = sortKey.property + "|" + direction.name() + "|" + id + "|" + (sortKey == SortKey.ID ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Products strictly after this cursor in its sort order. Written as
+     * {@code key >= v AND (key > v OR id > last)} rather than the equivalent
+     * {@code key > v OR (key = v AND id > last)}: the bounded form lets the database range-scan
+     * the (key, id) index, where the plain OR falls back to a full table scan.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Specification<Product> seekPast() {
+        boolean ascending = direction.isAscending();
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idPast = ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            if (sortKey == SortKey.ID) {
+                return idPast;
+            }
+            Path<Comparable> keyPath = root.get(sortKey.property);
+            Comparable key = (Comparable) value;
+            return ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(keyPath, key), cb.or(cb.greaterThan(keyPath, key), idPast))
+                    : cb.and(cb.lessThanOrEqualTo(keyPath, key), cb.or(cb.lessThan(keyPath, key), idPast));
+        };
+    }
+
+    static Sort.Direction direction(String direction) {
+        try {
+            return Sort.Direction.fromString(direction.toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported direction '" + direction + "'; use asc or desc");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Precomputed facet counts for catalog filtering: one count per category, price band and
+ * half-star rating band. Built once from the products table when the application is ready
+ * and kept current by {@link ProductService} on every add, update and delete, so answering a
+ * facet query touches at most categories x bands counters, however large the catalog grows.
+ * <p>
+ * Counts are exact because filters are restricted to band edges: minPrice and maxPrice must be
+ * one of {@link #PRICE_EDGES} and minRating a multiple of 0.5.
+ */
+@Service
+public class ProductFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    // Lower edges of the price bands; the last band is open-ended
+    static final double[] PRICE_EDGES = {0, 25, 50, 100, 250, 500, 1000, 2500};
+    // Half-star bands 0.0, 0.5, ... 5.0
+    static final int RATING_BANDS = 11;
+
+    private final ProductRepository productRepository;
+
+    // Category -> counts indexed by priceBand * RATING_BANDS + ratingBand
+    private volatile Map<String, AtomicIntegerArray> counts = new ConcurrentHashMap<>();
+
+    public ProductFacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Facet position of one product. Products without a price are not counted.
+     */
+    public record Entry(String category, int priceBand, int ratingBand) {
+    }
+
+    public record Filter(Collection<String> categories, int fromPriceBand, int toPriceBand, int fromRatingBand) {
+    }
+
+    public record Counts(int total, Map<String, Integer> categories, Map<String, Integer> priceRanges,
+                         Map<String, Integer> ratings) {
+    }
+
+    // After CommandLineRunners, so products seeded at startup are counted too
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<String, AtomicIntegerArray> rebuilt = new ConcurrentHashMap<>();
+        for (Object[] row : productRepository.findFacetValues()) {
+            Entry entry = entryOf((String) row[0], (Double) row[1], (Double) row[2]);
+            if (entry != null) {
+                cell(rebuilt, entry.category()).incrementAndGet(index(entry));
+            }
+        }
+        counts = rebuilt;
+        logger.info("Facet index built for {} categories", rebuilt.size());
+    }
+
+    public Entry entryOf(Product product) {
+        return entryOf(product.getCategory(), product.getPrice(), product.getRating());
+    }
+
+    public void add(Entry entry) {
+        if (entry != null) {
+            cell(counts, entry.category()).incrementAndGet(index(entry));
+        }
+    }
+
+    public void remove(Entry entry) {
+        if (entry == null) return;
+        AtomicIntegerArray cell = counts.get(entry.category());
+        if (cell != null) {
+            cell.decrementAndGet(index(entry));
+        }
+    }
+
+    public void move(Entry before, Entry after) {
+        if (before == null ? after == null : before.equals(after)) return;
+        remove(before);
+        add(after);
+    }
+
+    /**
+     * Stored category names matching {@code category} regardless of case
+     */
+    public List<String> resolveCategory(String category) {
+        return counts.keySet().stream().filter(category::equalsIgnoreCase).toList();
+    }
+
+    /**
+     * Counts for {@code filter}. Each facet is counted with every filter except its own
+     * applied, so a client can see how many products each alternative choice would return.
+     */
+    public Counts count(Filter filter) {
+        Map<String, Integer> categories = new TreeMap<>();
+        int[] priceRanges = new int[PRICE_EDGES.length];
+        int[] ratingBands = new int[RATING_BANDS];
+        int total = 0;
+
+        for (Map.Entry<String, AtomicIntegerArray> category : counts.entrySet()) {
+            boolean categoryMatches = filter.categories() == null || filter.categories().contains(category.getKey());
+            AtomicIntegerArray cell = category.getValue();
+            int inCategory = 0;
+            for (int price = 0; price < PRICE_EDGES.length; price++) {
+                boolean priceMatches = price >= filter.fromPriceBand() && price < filter.toPriceBand();
+                for (int rating = 0; rating < RATING_BANDS; rating++) {
+                    int count = cell.get(price * RATING_BANDS + rating);
+                    if (count == 0) continue;
+                    boolean ratingMatches = rating >= filter.fromRatingBand();
+                    if (priceMatches && ratingMatches) inCategory += count;
+                    if (categoryMatches && ratingMatches) priceRanges[price] += count;
+                    if (categoryMatches && priceMatches) ratingBands[rating] += count;
+                }
+            }
+            if (inCategory > 0) categories.put(category.getKey(), inCategory);
+            if (categoryMatches) total += inCategory;
+        }
+
+        Map<String, Integer> prices = new LinkedHashMap<>();
+        for (int price = 0; price < PRICE_EDGES.length; price++) {
+            prices.put(priceLabel(price), priceRanges[price]);
+        }
+        // Ratings read as "this many stars and up", highest first
+        Map<String, Integer> ratings = new LinkedHashMap<>();
+        int atLeast = 0;
+        for (int rating = RATING_BANDS - 1; rating >= 0; rating--) {
+            atLeast += ratingBands[rating];
+            if (rating % 2 == 0 && rating > 0) ratings.put((rating / 2) + "+", atLeast);
+        }
+        return new Counts(total, categories, prices, ratings);
+    }
+
+    static int priceBandStartingAt(double edge) {
+        for (int band = 0; band < PRICE_EDGES.length; band++) {
+            if (PRICE_EDGES[band] == edge) return band;
+        }
+        List<String> edges = new ArrayList<>();
+        for (double e : PRICE_EDGES) edges.add(String.valueOf((int) e));
+        throw new IllegalArgumentException("Price filters must be one of " + String.join(", ", edges));
+    }
+
+    static int ratingBandStartingAt(double minRating) {
+        if (minRating < 0 || minRating > 5 || minRating * 2 != Math.floor(minRating * 2)) {
+            throw new IllegalArgumentException("minRating must be a multiple of 0.5 between 0 and 5");
+        }
+        return (int) (minRating * 2);
+    }
+
+    private static Entry entryOf(String category, Double price, Double rating) {
+        if (price == null) return null;
+        int priceBand = 0;
+        while (priceBand + 1 < PRICE_EDGES.length && price >= PRICE_EDGES[priceBand + 1]) priceBand++;
+        int ratingBand = rating == null ? 0 : (int) Math.max(0, Math.min(RATING_BANDS - 1, Math.floor(rating * 2)));
+        return new Entry(category != null ? category : "General", priceBand, ratingBand);
+    }
+
+    private static String priceLabel(int band) {
+        int from = (int) PRICE_EDGES[band];
+        return band + 1 < PRICE_EDGES.length ? from + "-" + (int) PRICE_EDGES[band + 1] : from + "+";
+    }
+
+    private static int index(Entry entry) {
+        return entry.priceBand() * RATING_BANDS + entry.ratingBand();
+    }
+
+    private static AtomicIntegerArray cell(Map<String, AtomicIntegerArray> counts, String category) {
+        return counts.computeIfAbsent(category, c -> new AtomicIntegerArray(PRICE_EDGES.length * RATING_BANDS));
+    }
+}
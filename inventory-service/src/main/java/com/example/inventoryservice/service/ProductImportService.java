@@ -0,0 +1,392 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.ProductImportResultDTO;
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from NDJSON (one product object per line) or CSV (a header row naming
+ * the columns, then one product per record). The payload is read as a stream and validated
+ * row by row, so memory use does not grow with its size. Valid rows are inserted in chunks,
+ * each chunk in its own transaction and sent as JDBC batches; a chunk that the database
+ * rejects is retried row by row so one bad row costs only itself. Chunks commit as they go:
+ * if the upload breaks off, the rows before it stay imported. IDs in the payload are ignored;
+ * the catalog assigns its own.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final int MAX_ERROR_LENGTH = 200;
+
+    // CSV columns, matched case-insensitively against the header
+    private static final Map<String, BiConsumer<ProductDTO, String>> CSV_COLUMNS = Map.of(
+            "name", ProductDTO::setName,
+            "description", ProductDTO::setDescription,
+            "price", (product, value) -> product.setPrice(parseNumber("price", value, Double::valueOf)),
+            "stockquantity", (product, value) -> product.setStockQuantity(parseNumber("stockQuantity", value, Integer::valueOf)),
+            "category", ProductDTO::setCategory,
+            "imageurl", ProductDTO::setImageUrl,
+            "rating", (product, value) -> product.setRating(parseNumber("rating", value, Double::valueOf)),
+            "reviewcount", (product, value) -> product.setReviewCount(parseNumber("reviewCount", value, Integer::valueOf)));
+
+    private final ProductRepository productRepository;
+    private final ProductFacetIndex facetIndex;
+    private final ProductSearchIndex searchIndex;
+    private final StockLedgerService stockLedgerService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    public ProductImportService(ProductRepository productRepository, ProductFacetIndex facetIndex,
+                                ProductSearchIndex searchIndex, StockLedgerService stockLedgerService,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                Validator validator, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${inventory.import.chunk-size:1000}") int chunkSize,
+                                @Value("${inventory.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.productRepository = productRepository;
+        this.facetIndex = facetIndex;
+        this.searchIndex = searchIndex;
+        this.stockLedgerService = stockLedgerService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedCounter = Counter.builder("inventory.products.imported")
+                .description("Number of products added by bulk import")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("inventory.products.import.rejected")
+                .description("Number of bulk import rows rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One payload row: the product it describes, or why it could not be read
+     */
+    private record Row(long line, ProductDTO product, String error) {
+    }
+
+    private interface RowReader {
+        // Null once the payload is exhausted
+        Row next() throws IOException;
+    }
+
+    public ProductImportResultDTO importProducts(InputStream body, MediaType contentType) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+        RowReader rows;
+        if (NDJSON.includes(contentType)) {
+            rows = new NdjsonRowReader(reader);
+        } else if (CSV.includes(contentType)) {
+            rows = new CsvRowReader(reader);
+        } else {
+            throw new IllegalArgumentException("Unsupported import format " + contentType + "; use application/x-ndjson or text/csv");
+        }
+
+        long start = System.nanoTime();
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Row row;
+        while ((row = rows.next()) != null) {
+            result.setReceived(result.getReceived() + 1);
+            String error = row.error() != null ? row.error() : validate(row.product());
+            if (error != null) {
+                reject(result, row.line(), error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                write(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, result);
+        }
+        logger.info("Imported {} of {} products ({} rejected) in {} ms", result.getImported(), result.getReceived(),
+                result.getFailed(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private String validate(ProductDTO product) {
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void write(List<Row> chunk, ProductImportResultDTO result) {
+        List<Product> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insert(chunk));
+        } catch (RuntimeException e) {
+            // The database refused some row and the whole chunk rolled back; find it one row at a time
+            logger.debug("Import chunk of {} rows failed, retrying row by row: {}", chunk.size(), e.getMessage());
+            saved = new ArrayList<>();
+            for (Row row : chunk) {
+                try {
+                    saved.addAll(transactionTemplate.execute(status -> insert(List.of(row))));
+                } catch (RuntimeException rowFailure) {
+                    reject(result, row.line(), databaseError(rowFailure));
+                }
+            }
+        }
+        for (Product product : saved) {
+            facetIndex.add(facetIndex.entryOf(product));
+            searchIndex.index(product);
+        }
+        result.setImported(result.getImported() + saved.size());
+        importedCounter.increment(saved.size());
+    }
+
+    private List<Product> insert(List<Row> rows) {
+        // Fresh entities every attempt: a rolled-back attempt leaves IDs and versions on the old ones
+        List<Product> products = rows.stream().map(row -> ProductService.newProduct(row.product())).toList();
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        // A bulk load would otherwise push every new row into the second-level cache, evicting the hot ones
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            productRepository.saveAll(products);
+            stockLedgerService.recordOpeningStock(products);
+            entityManager.flush();
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        // The persistence context lives as long as the request; keep it to one chunk
+        entityManager.clear();
+        return products;
+    }
+
+    private void reject(ProductImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        rejectedCounter.increment();
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportResultDTO.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String databaseError(RuntimeException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) return e.getClass().getSimpleName();
+        // H2 appends the failing SQL on following lines
+        message = message.lines().findFirst().orElse(message);
+        if (message.endsWith("; SQL statement:")) {
+            message = message.substring(0, message.length() - "; SQL statement:".length());
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) + "..." : message;
+    }
+
+    private static <T> T parseNumber(String column, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": '" + value + "' is not a number");
+        }
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) return null;
+            } while (text.isBlank());
+            try {
+                ProductDTO product = objectMapper.readValue(text, ProductDTO.class);
+                return product != null ? new Row(line, product, null) : new Row(line, null, "Expected a JSON object");
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 records: comma-separated, fields optionally double-quoted, quotes inside quoted
+     * fields doubled. Quoted fields may span lines. Empty fields are left unset.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final List<BiConsumer<ProductDTO, String>> columns = new ArrayList<>();
+        private long line = 1;
+        private long recordLine;
+        private int pending = -2;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = nextRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import needs a header row");
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : header) {
+                String key = name.trim().toLowerCase(Locale.ROOT);
+                BiConsumer<ProductDTO, String> column = CSV_COLUMNS.get(key);
+                if (column == null) {
+                    throw new IllegalArgumentException("Unknown CSV column '" + name.trim()
+                            + "'; use name, description, price, stockQuantity, category, imageUrl, rating or reviewCount");
+                }
+                if (names.contains(key)) {
+                    throw new IllegalArgumentException("CSV column '" + name.trim() + "' appears twice");
+                }
+                names.add(key);
+                columns.add(column);
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            try {
+                fields = nextRecord();
+            } catch (IllegalArgumentException e) {
+                return new Row(recordLine, null, e.getMessage());
+            }
+            if (fields == null) return null;
+            if (fields.size() != columns.size()) {
+                return new Row(recordLine, null, "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            ProductDTO product = new ProductDTO();
+            try {
+                for (int i = 0; i < fields.size(); i++) {
+                    String value = fields.get(i);
+                    if (!value.isEmpty()) {
+                        columns.get(i).accept(product, value);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return new Row(recordLine, null, e.getMessage());
+            }
+            return new Row(recordLine, product, null);
+        }
+
+        // Null at the end of the payload; blank lines between records are skipped
+        private List<String> nextRecord() throws IOException {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = afterLineBreak(c);
+            }
+            if (c == -1) return null;
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c == '"') {
+                            field.append('"');
+                            c = read();
+                        } else {
+                            quoted = false;
+                        }
+                        continue;
+                    }
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                    c = read();
+                } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                    quoted = true;
+                    wasQuoted = true;
+                    c = read();
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    wasQuoted = false;
+                    c = read();
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    if (c != -1) {
+                        pending = afterLineBreak(c);
+                    }
+                    return fields;
+                } else {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+        }
+
+        // Consumes a line break starting with c (CR, LF or CRLF) and returns the character after it
+        private int afterLineBreak(int c) throws IOException {
+            line++;
+            int next = read();
+            if (c == '\r' && next == '\n') {
+                next = read();
+            }
+            return next;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranked full-text search over product name, category and description. Each field is
+ * tokenized, lower-cased, stripped of stop words and stemmed with a light English suffix
+ * stripper, then kept in an inverted index that {@link ProductService} updates on every
+ * product write. Results are ranked with BM25F: per-field term frequencies are length-normalized,
+ * weighted by the field boosts in {@code inventory.search.boost.*} and saturated once per term.
+ * <p>
+ * Every query term must match. A term that is not in the index matches indexed terms one edit
+ * away (insert, delete, substitute or swap two letters), found through a table of one-deletion
+ * variants, and the last term also matches as a prefix so results keep up while the user types.
+ * Both kinds of match score below an exact one.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    // Field order in frequency and length arrays
+    private static final int NAME = 0;
+    private static final int CATEGORY = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int FIELDS = 3;
+
+    // BM25 parameters: term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double TYPO_WEIGHT = 0.6;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_EXPANSIONS = 50;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "with");
+
+    private final ProductRepository productRepository;
+    private final double[] boosts = new double[FIELDS];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted so the last query term can be matched as a prefix
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // One-deletion variant -> indexed terms it was derived from
+    private final Map<String, List<String>> deletions = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final long[] totalLengths = new long[FIELDS];
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${inventory.search.boost.name:3.0}") double nameBoost,
+                              @Value("${inventory.search.boost.category:2.0}") double categoryBoost,
+                              @Value("${inventory.search.boost.description:1.0}") double descriptionBoost) {
+        this.productRepository = productRepository;
+        this.boosts[NAME] = nameBoost;
+        this.boosts[CATEGORY] = categoryBoost;
+        this.boosts[DESCRIPTION] = descriptionBoost;
+    }
+
+    public record Hit(Long productId, double score) {
+    }
+
+    public record Result(int total, List<Hit> hits) {
+    }
+
+    // Distinct terms of one product and its field lengths in terms, kept for removal
+    private record Document(String[] terms, int[] lengths) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = productRepository.findSearchableText();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            deletions.clear();
+            documents.clear();
+            Arrays.fill(totalLengths, 0);
+            for (Object[] row : rows) {
+                addUnlocked((Long) row[0], (String) row[1], (String) row[3], (String) row[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index built for {} products, {} terms", rows.size(), postings.size());
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            addUnlocked(product.getId(), product.getName(), product.getCategory(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products matching every term of {@code query}, best first (ties by product ID), skipping
+     * {@code offset} hits and returning at most {@code limit}. The total counts all matches.
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String> raw = tokenize(query);
+        if (raw.isEmpty()) {
+            return new Result(0, List.of());
+        }
+        String prefix = raw.get(raw.size() - 1);
+        // Stemmed term -> token as typed, which typo matching also tries
+        Map<String, String> terms = new LinkedHashMap<>();
+        for (String token : raw) {
+            if (!STOP_WORDS.contains(token)) terms.putIfAbsent(stem(token), token);
+        }
+        if (terms.isEmpty()) {
+            return new Result(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<Expansion>> matches = new ArrayList<>(terms.size());
+            for (Map.Entry<String, String> term : terms.entrySet()) {
+                boolean last = term.getValue().equals(prefix);
+                List<Expansion> expansions = expand(term.getKey(), term.getValue(), last ? prefix : null);
+                if (expansions.isEmpty()) {
+                    return new Result(0, List.of());
+                }
+                matches.add(expansions);
+            }
+            // Start from the rarest term so the candidate set is as small as it gets
+            matches.sort((a, b) -> Integer.compare(documentFrequency(a), documentFrequency(b)));
+
+            Candidates candidates = seed(matches.get(0));
+            for (int i = 1; i < matches.size() && candidates.size > 0; i++) {
+                candidates.retainScored(matches.get(i));
+            }
+            return new Result(candidates.size, candidates.top(offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexed terms a query term stands for: itself, or terms one edit away when it is not
+     * indexed, plus (for the last query term) terms it is a prefix of.
+     */
+    private List<Expansion> expand(String term, String typed, String prefix) {
+        List<Expansion> expansions = new ArrayList<>();
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            expansions.add(new Expansion(exact, idf(exact), 1.0));
+        } else if (typed.length() >= MIN_TYPO_LENGTH) {
+            // The typed token too: a typo can hit a suffix the stemmer strips ("wireles")
+            Set<String> candidates = typoCandidates(term);
+            candidates.addAll(typoCandidates(typed));
+            for (String candidate : candidates) {
+                Postings p = postings.get(candidate);
+                expansions.add(new Expansion(p, idf(p), TYPO_WEIGHT));
+            }
+        }
+        if (prefix != null && prefix.length() >= MIN_PREFIX_LENGTH) {
+            int added = 0;
+            for (Map.Entry<String, Postings> entry : postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false).entrySet()) {
+                if (entry.getKey().equals(term)) continue;
+                Postings p = entry.getValue();
+                expansions.add(new Expansion(p, idf(p), PREFIX_WEIGHT));
+                if (++added == MAX_EXPANSIONS) break;
+            }
+        }
+        return expansions;
+    }
+
+    private Set<String> typoCandidates(String term) {
+        Set<String> candidates = new LinkedHashSet<>();
+        if (term.length() < MIN_TYPO_LENGTH) return candidates;
+        // A letter missing from the query
+        candidates.addAll(deletions.getOrDefault(term, List.of()));
+        for (String variant : deletionsOf(term)) {
+            // An extra letter in the query
+            if (postings.containsKey(variant)) candidates.add(variant);
+            // A wrong or swapped letter: both sides lose a letter to the same variant
+            for (String indexed : deletions.getOrDefault(variant, List.of())) {
+                if (editDistanceAtMostOne(term, indexed)) candidates.add(indexed);
+            }
+        }
+        candidates.remove(term);
+        if (candidates.size() > MAX_EXPANSIONS) {
+            return new LinkedHashSet<>(new ArrayList<>(candidates).subList(0, MAX_EXPANSIONS));
+        }
+        return candidates;
+    }
+
+    private Candidates seed(List<Expansion> expansions) {
+        if (expansions.size() == 1) {
+            Expansion only = expansions.get(0);
+            Postings p = only.postings();
+            Candidates candidates = new Candidates(p.size);
+            for (int i = 0; i < p.size; i++) {
+                candidates.add(p.ids[i], only.weight() * score(only.idf(), p.freqs[i], p.lengths[i]));
+            }
+            return candidates;
+        }
+        // Several expansions: a product matching more than one keeps its best
+        int size = 0;
+        for (Expansion expansion : expansions) size += expansion.postings().size;
+        long[] ids = new long[size];
+        double[] scores = new double[size];
+        int n = 0;
+        for (Expansion expansion : expansions) {
+            Postings p = expansion.postings();
+            for (int i = 0; i < p.size; i++, n++) {
+                ids[n] = p.ids[i];
+                scores[n] = expansion.weight() * score(expansion.idf(), p.freqs[i], p.lengths[i]);
+            }
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+        Candidates candidates = new Candidates(size);
+        for (int i : order) {
+            if (candidates.size > 0 && candidates.ids[candidates.size - 1] == ids[i]) {
+                candidates.scores[candidates.size - 1] = Math.max(candidates.scores[candidates.size - 1], scores[i]);
+            } else {
+                candidates.add(ids[i], scores[i]);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * BM25F: field frequencies are length-normalized and boosted, then saturated together
+     */
+    private double score(double idf, int packedFreqs, int packedLengths) {
+        int count = documents.size();
+        double tf = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            int freq = unpack(packedFreqs, field);
+            if (freq == 0) continue;
+            double averageLength = (double) totalLengths[field] / count;
+            double norm = averageLength > 0 ? 1 - B + B * unpack(packedLengths, field) / averageLength : 1;
+            tf += boosts[field] * freq / norm;
+        }
+        return idf * tf * (K1 + 1) / (tf + K1);
+    }
+
+    private double idf(Postings p) {
+        int count = documents.size();
+        return Math.log(1 + (count - p.size + 0.5) / (p.size + 0.5));
+    }
+
+    private static int documentFrequency(List<Expansion> expansions) {
+        int total = 0;
+        for (Expansion expansion : expansions) total += expansion.postings().size;
+        return total;
+    }
+
+    private void addUnlocked(Long productId, String name, String category, String description) {
+        Map<String, int[]> freqs = new HashMap<>();
+        int[] lengths = new int[FIELDS];
+        String[] texts = {name, category, description};
+        for (int field = 0; field < FIELDS; field++) {
+            for (String term : analyze(texts[field])) {
+                freqs.computeIfAbsent(term, t -> new int[FIELDS])[field]++;
+                lengths[field]++;
+            }
+            totalLengths[field] += lengths[field];
+        }
+        for (Map.Entry<String, int[]> entry : freqs.entrySet()) {
+            Postings p = postings.get(entry.getKey());
+            if (p == null) {
+                p = new Postings();
+                postings.put(entry.getKey(), p);
+                addDeletions(entry.getKey());
+            }
+            p.put(productId, pack(entry.getValue()), pack(lengths));
+        }
+        documents.put(productId, new Document(freqs.keySet().toArray(new String[0]), lengths));
+    }
+
+    private void removeUnlocked(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) return;
+        for (int field = 0; field < FIELDS; field++) {
+            totalLengths[field] -= document.lengths()[field];
+        }
+        for (String term : document.terms()) {
+            Postings p = postings.get(term);
+            if (p == null) continue;
+            p.remove(productId);
+            if (p.size == 0) {
+                postings.remove(term);
+                removeDeletions(term);
+            }
+        }
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < MIN_TYPO_LENGTH) return;
+        for (String variant : deletionsOf(term)) {
+            deletions.computeIfAbsent(variant, v -> new ArrayList<>(1)).add(term);
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() < MIN_TYPO_LENGTH) return;
+        for (String variant : deletionsOf(term)) {
+            List<String> terms = deletions.get(variant);
+            if (terms == null) continue;
+            terms.remove(term);
+            if (terms.isEmpty()) deletions.remove(variant);
+        }
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> variants = new LinkedHashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    // Optimal string alignment distance of at most one: one insert, delete, substitution or swap
+    static boolean editDistanceAtMostOne(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) return false;
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) i++;
+        if (a.length() == b.length()) {
+            if (i == a.length()) return true;
+            if (a.substring(i + 1).equals(b.substring(i + 1))) return true;
+            return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = longer == a ? b : a;
+        return longer.substring(i + 1).equals(shorter.substring(i));
+    }
+
+    /**
+     * Index terms for {@code text}: tokens without stop words, stemmed
+     */
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Light English stemmer: folds plurals and -ing/-ed forms onto one term ("batteries" and
+     * "battery", "running" and "run"). It only has to agree with itself, since queries and
+     * products go through the same function.
+     */
+    static String stem(String token) {
+        int n = token.length();
+        if (n <= 3 || !Character.isLetter(token.charAt(n - 1))) return token;
+        if (token.endsWith("ies") && n > 4) return token.substring(0, n - 3) + "y";
+        if (token.endsWith("sses")) return token.substring(0, n - 2);
+        if (token.endsWith("xes") || token.endsWith("ches") || token.endsWith("shes")) return token.substring(0, n - 2);
+        if (token.endsWith("ing") && n > 5) return undouble(token.substring(0, n - 3));
+        if (token.endsWith("ed") && n > 4 && !token.endsWith("eed")) return undouble(token.substring(0, n - 2));
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, n - 1);
+        }
+        return token;
+    }
+
+    private static String undouble(String stem) {
+        int n = stem.length();
+        char last = stem.charAt(n - 1);
+        if (n > 2 && last == stem.charAt(n - 2) && "aeiouls".indexOf(last) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    // Per-field counts packed into one int, 10 bits each (capped at 1023)
+    private static int pack(int[] counts) {
+        int packed = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            packed |= Math.min(counts[field], 1023) << (field * 10);
+        }
+        return packed;
+    }
+
+    private static int unpack(int packed, int field) {
+        return (packed >>> (field * 10)) & 1023;
+    }
+
+    private record Expansion(Postings postings, double idf, double weight) {
+    }
+
+    /**
+     * Products containing one term, sorted by product ID, with their packed field frequencies
+     * and field lengths. Lengths are repeated in every posting so scoring a match needs no
+     * per-product lookup.
+     */
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int[] freqs = new int[2];
+        private int[] lengths = new int[2];
+        private int size;
+
+        private int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private void put(long id, int packedFreqs, int packedLengths) {
+            int i = indexOf(id);
+            if (i >= 0) {
+                freqs[i] = packedFreqs;
+                lengths[i] = packedLengths;
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            System.arraycopy(freqs, i, freqs, i + 1, size - i);
+            System.arraycopy(lengths, i, lengths, i + 1, size - i);
+            ids[i] = id;
+            freqs[i] = packedFreqs;
+            lengths[i] = packedLengths;
+            size++;
+        }
+
+        private void remove(long id) {
+            int i = indexOf(id);
+            if (i < 0) return;
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            System.arraycopy(freqs, i + 1, freqs, i, size - i - 1);
+            System.arraycopy(lengths, i + 1, lengths, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Products still matching the query so far, sorted by product ID, with their running score
+     */
+    private final class Candidates {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        private Candidates(int capacity) {
+            this.ids = new long[capacity];
+            this.scores = new double[capacity];
+        }
+
+        private void add(long id, double score) {
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+
+        // Keep only products matching one of the expansions, adding the best expansion's score
+        private void retainScored(List<Expansion> expansions) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                double best = 0;
+                for (Expansion expansion : expansions) {
+                    Postings p = expansion.postings();
+                    int at = p.indexOf(ids[i]);
+                    if (at >= 0) {
+                        best = Math.max(best, expansion.weight() * score(expansion.idf(), p.freqs[at], p.lengths[at]));
+                    }
+                }
+                if (best > 0) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + best;
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        // Hits offset..offset+limit by descending score, keeping only that many in a heap
+        private List<Hit> top(int offset, int limit) {
+            int wanted = offset + limit;
+            if (offset >= size) return List.of();
+            // Worst kept hit at the head, so it is the one a better candidate evicts
+            PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(wanted, size) + 1, this::better);
+            for (int i = 0; i < size; i++) {
+                if (heap.size() < wanted) {
+                    heap.add(i);
+                } else if (better(i, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(i);
+                }
+            }
+            List<Integer> ranked = new ArrayList<>(heap);
+            ranked.sort((a, b) -> better(b, a));
+            List<Hit> hits = new ArrayList<>(limit);
+            for (int i = offset; i < ranked.size(); i++) {
+                int at = ranked.get(i);
+                hits.add(new Hit(ids[at], scores[at]));
+            }
+            return hits;
+        }
+
+        // Positive when candidate a ranks above b: higher score, then lower product ID
+        private int better(int a, int b) {
+            int byScore = Double.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Long.compare(ids[b], ids[a]);
+        }
+    }
+}
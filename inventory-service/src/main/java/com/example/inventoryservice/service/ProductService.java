@@ -1,29 +1,68 @@
 package com.example.inventoryservice.service;
 
 import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.ProductFilterDTO;
+import com.example.inventoryservice.dto.ProductPageDTO;
+import com.example.inventoryservice.dto.ProductSearchDTO;
+import com.example.inventoryservice.dto.StockMovementDTO;
 import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.model.StockLedgerEntry;
 import com.example.inventoryservice.repository.ProductRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    private static final int MAX_PAGE_SIZE = 200;
+    // Ranked results are paged by offset; nobody reads past the first few pages
+    private static final int MAX_SEARCH_OFFSET = 10_000;
+
     private final ProductRepository productRepository;
+    private final ReservationService reservationService;
+    private final OrderService orderService;
+    private final StripedStockService stripedStockService;
+    private final ProductFacetIndex facetIndex;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCache productCache;
+    private final StockEventService stockEventService;
+    private final StockLedgerService stockLedgerService;
+    private final TransactionTemplate transactionTemplate;
     private final Counter productAddCounter;
     private final Counter productUpdateCounter;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, MeterRegistry meterRegistry) {
+    public ProductService(ProductRepository productRepository, ReservationService reservationService,
+                          OrderService orderService, StripedStockService stripedStockService,
+                          ProductFacetIndex facetIndex, ProductSearchIndex searchIndex, ProductCache productCache,
+                          StockEventService stockEventService, StockLedgerService stockLedgerService,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
+        this.reservationService = reservationService;
+        this.orderService = orderService;
+        this.stripedStockService = stripedStockService;
+        this.facetIndex = facetIndex;
+        this.searchIndex = searchIndex;
+        this.productCache = productCache;
+        this.stockEventService = stockEventService;
+        this.stockLedgerService = stockLedgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.productAddCounter = Counter.builder("inventory.products.added")
                 .description("Number of products added")
                 .register(meterRegistry);
@@ -34,16 +73,13 @@ public class ProductService {
 
     public ProductDTO addProduct(ProductDTO productDTO) {
         logger.info("Adding new product: {}", productDTO.getName());
-        Product product = new Product();
-        product.setName(productDTO.getName());
-        product.setDescription(productDTO.getDescription());
-        product.setPrice(productDTO.getPrice());
-        product.setStockQuantity(productDTO.getStockQuantity());
-        product.setCategory(productDTO.getCategory() != null ? productDTO.getCategory() : "General");
-        product.setImageUrl(productDTO.getImageUrl());
-        product.setRating(productDTO.getRating() != null ? productDTO.getRating() : 4.0);
-        product.setReviewCount(productDTO.getReviewCount() != null ? productDTO.getReviewCount() : 0);
-        Product saved = productRepository.save(product);
+        Product saved = transactionTemplate.execute(status -> {
+            Product product = productRepository.save(newProduct(productDTO));
+            stockLedgerService.recordOpeningStock(List.of(product));
+            return product;
+        });
+        facetIndex.add(facetIndex.entryOf(saved));
+        searchIndex.index(saved);
         productAddCounter.increment();
         logger.debug("Product added with ID: {}", saved.getId());
         return mapToDTO(saved);
@@ -54,11 +90,16 @@ public class ProductService {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
+            ProductFacetIndex.Entry facetsBefore = facetIndex.entryOf(product);
+            // A hot product's stock lives in its stripes and is rewritten separately below
+            boolean striped = stripedStockService.isStriped(id);
+            int stockBefore = stripedStockService.totalStock(product);
+            Integer newStock = productDTO.getStockQuantity();
             product.setName(productDTO.getName());
             product.setDescription(productDTO.getDescription());
             product.setPrice(productDTO.getPrice());
-            if (productDTO.getStockQuantity() != null) {
-                product.setStockQuantity(productDTO.getStockQuantity());
+            if (newStock != null && !striped) {
+                product.setStockQuantity(newStock);
             }
             if (productDTO.getCategory() != null) {
                 product.setCategory(productDTO.getCategory());
@@ -72,7 +113,24 @@ public class ProductService {
             if (productDTO.getReviewCount() != null) {
                 product.setReviewCount(productDTO.getReviewCount());
             }
-            Product updated = productRepository.save(product);
+            // Each stock write commits together with its stock event and ledger entry
+            Product updated = transactionTemplate.execute(status -> {
+                Product saved = productRepository.save(product);
+                if (newStock != null && !striped) {
+                    recordStockChange(id, stockBefore, newStock);
+                }
+                return saved;
+            });
+            facetIndex.move(facetsBefore, facetIndex.entryOf(updated));
+            searchIndex.index(updated);
+            if (newStock != null && striped) {
+                reservationService.withProductLock(id, () -> transactionTemplate.execute(status -> {
+                    stripedStockService.setStock(id, newStock);
+                    recordStockChange(id, stockBefore, newStock);
+                    return null;
+                }));
+            }
+            reservationService.evictStock(id);
             productUpdateCounter.increment();
             logger.debug("Product updated: {}", updated.getId());
             return Optional.of(mapToDTO(updated));
@@ -83,7 +141,119 @@ public class ProductService {
 
     public List<ProductDTO> getAllProducts() {
         logger.debug("Fetching all products");
-        return productRepository.findAll().stream().map(this::mapToDTO).toList();
+        return mapToDTOs(productRepository.findAll());
+    }
+
+    /**
+     * One page of the catalog in a stable order: the sort key, then product ID as the
+     * tie-breaker. Pages are keyset-based, so a deep page costs the same as the first one.
+     */
+    public ProductPageDTO getProductPage(String sort, String direction, String cursor, int limit) {
+        ProductPageDTO page = new ProductPageDTO();
+        fillPage(page, Specification.where(null), sort, direction, cursor, limit);
+        return page;
+    }
+
+    /**
+     * Products matching category, price band and minimum rating, one keyset page at a time,
+     * with facet counts for the whole result from {@link ProductFacetIndex}. Category matches
+     * regardless of case; price and rating bounds must sit on facet band edges.
+     */
+    public ProductFilterDTO filterProducts(String category, Double minPrice, Double maxPrice, Double minRating,
+                                           String sort, String direction, String cursor, int limit) {
+        int fromPrice = minPrice != null ? ProductFacetIndex.priceBandStartingAt(minPrice) : 0;
+        int toPrice = maxPrice != null ? ProductFacetIndex.priceBandStartingAt(maxPrice) : ProductFacetIndex.PRICE_EDGES.length;
+        if (toPrice <= fromPrice) {
+            throw new IllegalArgumentException("maxPrice must be above minPrice");
+        }
+        int fromRating = minRating != null ? ProductFacetIndex.ratingBandStartingAt(minRating) : 0;
+        List<String> categories = category == null || category.isBlank() ? null : facetIndex.resolveCategory(category);
+
+        Specification<Product> filter = Specification.where(null);
+        if (categories != null) {
+            filter = filter.and((root, query, cb) -> categories.isEmpty() ? cb.disjunction() : root.get("category").in(categories));
+        }
+        if (fromPrice > 0) {
+            double from = ProductFacetIndex.PRICE_EDGES[fromPrice];
+            filter = filter.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), from));
+        }
+        if (toPrice < ProductFacetIndex.PRICE_EDGES.length) {
+            double to = ProductFacetIndex.PRICE_EDGES[toPrice];
+            filter = filter.and((root, query, cb) -> cb.lessThan(root.get("price"), to));
+        }
+        if (fromRating > 0) {
+            double rating = fromRating / 2.0;
+            filter = filter.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), rating));
+        }
+
+        ProductFilterDTO result = new ProductFilterDTO();
+        fillPage(result, filter, sort, direction, cursor, limit);
+        ProductFacetIndex.Counts counts = facetIndex.count(new ProductFacetIndex.Filter(categories, fromPrice, toPrice, fromRating));
+        result.setTotal(counts.total());
+        result.setCategories(counts.categories());
+        result.setPriceRanges(counts.priceRanges());
+        result.setRatings(counts.ratings());
+        return result;
+    }
+
+    /**
+     * One page in a stable order: the sort key, then product ID as the tie-breaker. Pages are
+     * keyset-based, so a deep page costs the same as the first one.
+     */
+    private void fillPage(ProductPageDTO page, Specification<Product> filter, String sort, String direction,
+                          String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ProductCursor.SortKey sortKey = ProductCursor.SortKey.of(sort);
+        Sort.Direction sortDirection = ProductCursor.direction(direction);
+        Specification<Product> matching = cursor == null || cursor.isBlank()
+                ? filter
+                : filter.and(ProductCursor.decode(cursor, sortKey, sortDirection).seekPast());
+        Sort order = sortKey == ProductCursor.SortKey.ID
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sortKey.property(), "id");
+
+        logger.debug("Fetching product page sorted by {} {}, limit {}", sortKey.property(), sortDirection, limit);
+        // One extra row tells us whether there is a next page, without a count query. limit() goes
+        // first: in Spring Data 3.2.0 it re-appends the current sort, and a repeated ORDER BY
+        // stops H2 from reading rows in index order
+        List<Product> rows = productRepository.findBy(matching, query -> query.limit(limit + 1).sortBy(order).all());
+        boolean hasNext = rows.size() > limit;
+        List<Product> products = hasNext ? rows.subList(0, limit) : rows;
+
+        page.setItems(mapToDTOs(products));
+        if (hasNext) {
+            page.setNextCursor(ProductCursor.after(products.get(limit - 1), sortKey, sortDirection).encode());
+        }
+        page.setSort(sortKey.property());
+        page.setDirection(sortDirection.name().toLowerCase());
+    }
+
+    /**
+     * Ranked full-text search over name, category and description, one page at a time.
+     * Only the products on the requested page are loaded from the database.
+     */
+    public ProductSearchDTO searchProducts(String query, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0 || (long) page * size > MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("Page must be between 0 and " + MAX_SEARCH_OFFSET / size);
+        }
+        ProductSearchIndex.Result result = searchIndex.search(query, page * size, size);
+        List<Long> ids = result.hits().stream().map(ProductSearchIndex.Hit::productId).toList();
+        logger.debug("Search '{}' matched {} products", query, result.total());
+
+        Map<Long, ProductDTO> found = new HashMap<>();
+        getProductsByIds(ids).forEach(dto -> found.put(dto.getId(), dto));
+        ProductSearchDTO dto = new ProductSearchDTO();
+        dto.setQuery(query);
+        dto.setItems(ids.stream().map(found::get).filter(Objects::nonNull).toList());
+        dto.setTotal(result.total());
+        dto.setPage(page);
+        dto.setSize(size);
+        return dto;
     }
 
     public Optional<ProductDTO> getProductById(Long id) {
@@ -91,22 +261,134 @@ public class ProductService {
         return productRepository.findById(id).map(this::mapToDTO);
     }
 
+    public List<ProductDTO> getProductsByIds(Collection<Long> ids) {
+        logger.debug("Fetching {} products by ID", ids.size());
+        return mapToDTOs(productCache.findAllById(ids));
+    }
+
     public void deleteProduct(Long id) {
         logger.info("Deleting product ID: {}", id);
-        productRepository.deleteById(id);
+        Optional<Product> existing = productRepository.findById(id);
+        // The product's stripes and stock history go with it; feed consumers see it leave with a null level
+        transactionTemplate.executeWithoutResult(status -> {
+            existing.ifPresent(product -> stockEventService.record(id, -stripedStockService.totalStock(product), "DELETE", null));
+            productRepository.deleteById(id);
+            stripedStockService.forget(id);
+            stockLedgerService.forget(id);
+        });
+        existing.ifPresent(product -> facetIndex.remove(facetIndex.entryOf(product)));
+        searchIndex.remove(id);
+        reservationService.evictStock(id);
+    }
+
+    /**
+     * Split the product's stock into {@code stripes} rows so concurrent orders stop queueing
+     * on the product row (hot-SKU mode). Calling it again re-spreads the stock.
+     */
+    public Optional<ProductDTO> enableHotStock(Long id, int stripes) {
+        if (!productRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        logger.info("Enabling hot-stock mode for product ID: {} with {} stripes", id, stripes);
+        reservationService.withProductLock(id, () -> {
+            stripedStockService.enable(id, stripes);
+            return null;
+        });
+        return getProductById(id);
+    }
+
+    /**
+     * Move stock by a relative amount, e.g. a delivery or a returned order, and record it in
+     * the stock ledger. Unlike an update that sets the stock, it cannot overwrite orders that
+     * land in between. A movement that would take stock below zero is rejected.
+     */
+    public Optional<ProductDTO> moveStock(Long id, StockMovementDTO movement) {
+        StockLedgerEntry.Type type = movement.getType();
+        int quantity = movement.getQuantity();
+        if (type == StockLedgerEntry.Type.SALE) {
+            throw new IllegalArgumentException("Sales are recorded by processing orders");
+        }
+        if (quantity == 0 || (type != StockLedgerEntry.Type.ADJUSTMENT && quantity < 0)) {
+            throw new IllegalArgumentException(type == StockLedgerEntry.Type.ADJUSTMENT
+                    ? "Adjustment quantity must not be zero" : type + " quantity must be positive");
+        }
+        if (!productRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        logger.info("Moving stock of product ID: {} by {} ({})", id, quantity, type);
+        // Hot products pick a stripe by reference, like orders do by order ID
+        String reference = movement.getReference();
+        String stripeKey = reference != null ? reference : type.name();
+        Boolean applied = reservationService.withProductLock(id, () -> transactionTemplate.execute(status -> {
+            if (quantity > 0) {
+                orderService.incrementStock(stripeKey, id, quantity);
+            } else if (!orderService.decrementStock(stripeKey, id, -quantity, 0, false)) {
+                return false;
+            }
+            stockEventService.record(id, quantity, type.name(), reference);
+            stockLedgerService.record(id, type, quantity, reference);
+            return true;
+        }));
+        if (!Boolean.TRUE.equals(applied)) {
+            throw new IllegalArgumentException("Insufficient stock for product ID: " + id);
+        }
+        return getProductById(id);
+    }
+
+    public Optional<ProductDTO> disableHotStock(Long id) {
+        if (!productRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        logger.info("Disabling hot-stock mode for product ID: {}", id);
+        reservationService.withProductLock(id, () -> {
+            stripedStockService.disable(id);
+            return null;
+        });
+        return getProductById(id);
+    }
+
+    private void recordStockChange(Long productId, int before, int after) {
+        if (after != before) {
+            stockEventService.record(productId, after - before, "UPDATE", null);
+            stockLedgerService.record(productId, StockLedgerEntry.Type.ADJUSTMENT, after - before, "product update");
+        }
+    }
+
+    // New products get the catalog defaults for fields the client left out
+    static Product newProduct(ProductDTO productDTO) {
+        Product product = new Product();
+        product.setName(productDTO.getName());
+        product.setDescription(productDTO.getDescription());
+        product.setPrice(productDTO.getPrice());
+        product.setStockQuantity(productDTO.getStockQuantity());
+        product.setCategory(productDTO.getCategory() != null ? productDTO.getCategory() : "General");
+        product.setImageUrl(productDTO.getImageUrl());
+        product.setRating(productDTO.getRating() != null ? productDTO.getRating() : 4.0);
+        product.setReviewCount(productDTO.getReviewCount() != null ? productDTO.getReviewCount() : 0);
+        return product;
+    }
+
+    private List<ProductDTO> mapToDTOs(List<Product> products) {
+        Map<Long, Integer> stock = stripedStockService.totalStock(products);
+        return products.stream().map(product -> mapToDTO(product, stock.get(product.getId()))).toList();
     }
 
     private ProductDTO mapToDTO(Product product) {
+        return mapToDTO(product, stripedStockService.totalStock(product));
+    }
+
+    private ProductDTO mapToDTO(Product product, Integer stockQuantity) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
-        dto.setStockQuantity(product.getStockQuantity());
+        dto.setStockQuantity(stockQuantity);
         dto.setCategory(product.getCategory());
         dto.setImageUrl(product.getImageUrl());
         dto.setRating(product.getRating());
         dto.setReviewCount(product.getReviewCount());
+        dto.setStockStripes(product.getStockStripes());
         return dto;
     }
 }
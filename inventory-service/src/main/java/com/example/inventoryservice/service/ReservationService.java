@@ -0,0 +1,543 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.AvailabilityDTO;
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ReservationDTO;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Time-bounded stock holds keyed by order ID. Checkout reserves stock before payment and
+ * confirms (decrements stock) or releases it afterwards; holds that are never confirmed
+ * expire on their own.
+ * <p>
+ * Holds live in memory only. Available-to-sell is stock minus active holds and is served
+ * from memory once a product's stock has been read. Every stock change made here, and every
+ * direct order, runs under per-product locks taken in product ID order. A hold can therefore
+ * never be granted against stock that another order is decrementing at that moment. Expiry
+ * uses a {@link DelayQueue} ordered by deadline, so each sweep touches only the holds that
+ * are due; confirmed or released holds are skipped when their deadline comes up.
+ * <p>
+ * Direct orders for hot (striped) products with no active holds take the product lock
+ * shared, so they only contend on their own stock stripe.
+ * <p>
+ * With {@code inventory.order-batching.enabled}, direct orders are group-committed through
+ * an {@link OrderBatcher}: one transaction, under one set of product locks, per batch.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+    private static final int ORDER_ID_LOCK_STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final StripedStockService stripedStockService;
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final DelayQueue<Reservation> expiryQueue = new DelayQueue<>();
+    private final Map<Long, Integer> held = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> knownStock = new ConcurrentHashMap<>();
+    private final Map<Long, ReadWriteLock> productLocks = new ConcurrentHashMap<>();
+    // Serialize direct orders by order ID; always taken before any product lock
+    private final Lock[] orderIdLocks = new Lock[ORDER_ID_LOCK_STRIPES];
+    private final OrderBatcher orderBatcher;
+
+    @Autowired
+    public ReservationService(ProductRepository productRepository, OrderService orderService, IdempotencyStore idempotencyStore,
+                              StripedStockService stripedStockService, MeterRegistry meterRegistry,
+                              @Value("${inventory.reservation.ttl:10m}") Duration defaultTtl,
+                              @Value("${inventory.reservation.max-ttl:30m}") Duration maxTtl,
+                              @Value("${inventory.order-batching.enabled:false}") boolean batchingEnabled,
+                              @Value("${inventory.order-batching.max-batch-size:64}") int maxBatchSize,
+                              @Value("${inventory.order-batching.max-wait:2ms}") Duration maxBatchWait,
+                              @Value("${inventory.order-batching.queue-capacity:1000}") int batchQueueCapacity) {
+        this.productRepository = productRepository;
+        this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.stripedStockService = stripedStockService;
+        this.meterRegistry = meterRegistry;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        for (int i = 0; i < orderIdLocks.length; i++) {
+            orderIdLocks[i] = new ReentrantLock();
+        }
+        Gauge.builder("inventory.reservations.active", reservations, Map::size)
+                .description("Reservations currently holding stock")
+                .register(meterRegistry);
+        this.orderBatcher = batchingEnabled
+                ? new OrderBatcher(maxBatchSize, maxBatchWait, batchQueueCapacity, this::processBatch, this::processUnbatched, meterRegistry)
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (orderBatcher != null) {
+            orderBatcher.shutdown();
+        }
+    }
+
+    public ReservationDTO reserve(ReservationRequest request) {
+        if (request.getOrderId() == null || request.getOrderId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required for idempotency");
+        }
+        Map<Long, Integer> items = mergeItems(request.getItems());
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation TTL must be between 1 second and " + maxTtl.toSeconds() + " seconds");
+        }
+
+        List<Lock> locks = lock(items.keySet());
+        try {
+            Reservation existing = reservations.get(request.getOrderId());
+            if (existing != null) {
+                logger.info("Reservation already held for order: {}", request.getOrderId());
+                return toDTO(existing, "HELD", null);
+            }
+
+            for (Map.Entry<Long, Integer> line : items.entrySet()) {
+                Long productId = line.getKey();
+                Integer stock = refreshStock(productId);
+                if (stock == null) {
+                    count("rejected");
+                    return rejected(request.getOrderId(), items, "Product not found: " + productId);
+                }
+                if (stock - held.getOrDefault(productId, 0) < line.getValue()) {
+                    count("rejected");
+                    return rejected(request.getOrderId(), items, "Insufficient stock for product ID: " + productId);
+                }
+            }
+
+            Reservation reservation = new Reservation(request.getOrderId(), items, Instant.now().plus(ttl));
+            items.forEach((productId, quantity) -> held.merge(productId, quantity, Integer::sum));
+            reservations.put(reservation.orderId, reservation);
+            expiryQueue.add(reservation);
+            count("held");
+            logger.info("Reserved stock for order {} until {}", reservation.orderId, reservation.expiresAt);
+            return toDTO(reservation, "HELD", null);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Turn the hold into a real stock decrement. The decrement happens before the hold is
+     * dropped, so available-to-sell can only be under-stated, never over-stated, in between.
+     */
+    public ReservationDTO confirm(String orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            throw new IllegalArgumentException("No active reservation for order: " + orderId);
+        }
+
+        List<Lock> locks = lock(reservation.items.keySet());
+        try {
+            if (reservations.get(orderId) != reservation) {
+                throw new IllegalArgumentException("No active reservation for order: " + orderId);
+            }
+            Map<Long, Integer> reservedByOthers = new HashMap<>();
+            reservation.items.forEach((productId, quantity) ->
+                    reservedByOthers.put(productId, held.getOrDefault(productId, 0) - quantity));
+
+            String result = orderService.processOrder(toOrderRequest(reservation), reservedByOthers);
+            removeHold(reservation);
+            reservation.items.keySet().forEach(knownStock::remove);
+
+            boolean processed = result.startsWith("Order processed") || result.startsWith("Order already processed");
+            count(processed ? "confirmed" : "confirm_failed");
+            logger.info("Confirmed reservation for order {}: {}", orderId, result);
+            return toDTO(reservation, processed ? "CONFIRMED" : "FAILED", result);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    public ReservationDTO release(String orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            throw new IllegalArgumentException("No active reservation for order: " + orderId);
+        }
+        List<Lock> locks = lock(reservation.items.keySet());
+        try {
+            if (reservations.get(orderId) == reservation) {
+                removeHold(reservation);
+                count("released");
+                logger.info("Released reservation for order {}", orderId);
+            }
+            return toDTO(reservation, "RELEASED", null);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    public Optional<ReservationDTO> getReservation(String orderId) {
+        return Optional.ofNullable(reservations.get(orderId)).map(r -> toDTO(r, "HELD", null));
+    }
+
+    public Optional<AvailabilityDTO> getAvailability(Long productId) {
+        Integer stock = knownStock.get(productId);
+        if (stock == null) {
+            List<Lock> locks = lock(List.of(productId));
+            try {
+                stock = refreshStock(productId);
+            } finally {
+                unlock(locks);
+            }
+        }
+        if (stock == null) return Optional.empty();
+        int reserved = held.getOrDefault(productId, 0);
+        return Optional.of(new AvailabilityDTO(productId, stock, reserved, Math.max(0, stock - reserved)));
+    }
+
+    /**
+     * Process an order that has no reservation. It may only take stock that is not held
+     * for other orders. An order that does hold a reservation is confirmed against it instead.
+     */
+    public String processOrder(OrderRequest orderRequest) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String result = applyOrder(orderRequest);
+            outcome = result.startsWith("Insufficient") || result.startsWith("Product not found") || result.contains("failed")
+                    ? "rejected" : "processed";
+            return result;
+        } finally {
+            sample.stop(orderProcessingTimer(outcome));
+        }
+    }
+
+    private String applyOrder(OrderRequest orderRequest) {
+        if (orderRequest.getOrderId() != null && reservations.containsKey(orderRequest.getOrderId())) {
+            ReservationDTO confirmed = confirm(orderRequest.getOrderId());
+            return confirmed.getMessage();
+        }
+        // A retry of a recently processed order is answered from memory, without locks or a transaction
+        String previous = orderRequest.getOrderId() != null ? idempotencyStore.findRecent(orderRequest.getOrderId()) : null;
+        if (previous != null) {
+            return previous;
+        }
+        if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
+            return orderService.processOrder(orderRequest);
+        }
+        if (orderBatcher != null) {
+            String result = orderBatcher.submit(orderRequest);
+            if (result != null) return result;
+            // Queue full: apply it here rather than making the caller wait for room
+        }
+        return processUnbatched(orderRequest);
+    }
+
+    /**
+     * Apply a direct order under its product locks. It is retried once under exclusive locks
+     * if a database deadlock rolled it back, or if it held hot products shared and was
+     * rejected: shared holders never split an order across stripes, so the stock may only
+     * have been spread too thinly.
+     * <p>
+     * Two orders holding the same products shared would both pass the idempotency check
+     * before either records its result, so each order ID is also locked for the duration.
+     */
+    private String processUnbatched(OrderRequest orderRequest) {
+        Lock orderIdLock = orderIdLocks[Math.floorMod(Objects.hashCode(orderRequest.getOrderId()), orderIdLocks.length)];
+        orderIdLock.lock();
+        try {
+            return processUnbatchedLocked(orderRequest);
+        } finally {
+            orderIdLock.unlock();
+        }
+    }
+
+    private String processUnbatchedLocked(OrderRequest orderRequest) {
+        Collection<Long> productIds = orderRequest.getItems().stream()
+                .map(OrderRequest.OrderItem::getProductId)
+                .filter(Objects::nonNull)
+                .toList();
+        Set<Long> shared = new HashSet<>();
+        List<Lock> locks = lockForOrder(productIds, shared);
+        String result = null;
+        try {
+            result = orderService.processOrder(orderRequest, reservedByOthers(productIds), shared);
+        } catch (PessimisticLockingFailureException e) {
+            logger.warn("Order {} was rolled back on a lock conflict, retrying: {}", orderRequest.getOrderId(), e.getMessage());
+        } finally {
+            productIds.forEach(knownStock::remove);
+            unlock(locks);
+        }
+        if (result != null && (shared.isEmpty() || !result.startsWith("Insufficient"))) {
+            return result;
+        }
+
+        locks = lock(productIds);
+        try {
+            return orderService.processOrder(orderRequest, reservedByOthers(productIds));
+        } finally {
+            productIds.forEach(knownStock::remove);
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Run {@code action} while no order, hold or expiry touches the product, e.g. to switch
+     * it in or out of hot-stock mode.
+     */
+    public <T> T withProductLock(Long productId, Supplier<T> action) {
+        List<Lock> locks = lock(List.of(productId));
+        try {
+            return action.get();
+        } finally {
+            knownStock.remove(productId);
+            unlock(locks);
+        }
+    }
+
+    // Runs on the batcher thread; locks every product in the batch once for the whole transaction
+    private List<String> processBatch(List<OrderRequest> orderRequests) {
+        Set<Long> productIds = orderRequests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .map(OrderRequest.OrderItem::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<Lock> locks = lock(productIds);
+        try {
+            return orderService.processOrders(orderRequests, reservedByOthers(productIds));
+        } finally {
+            productIds.forEach(knownStock::remove);
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Forget the cached stock level after a write outside this service (e.g. a product update)
+     */
+    public void evictStock(Long productId) {
+        knownStock.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-ms:1000}")
+    public void expireDueReservations() {
+        Reservation due;
+        while ((due = expiryQueue.poll()) != null) {
+            Reservation reservation = due;
+            List<Lock> locks = lock(reservation.items.keySet());
+            try {
+                // Confirmed and released reservations were already removed; skip them
+                if (reservations.get(reservation.orderId) == reservation) {
+                    removeHold(reservation);
+                    count("expired");
+                    logger.info("Reservation for order {} expired", reservation.orderId);
+                }
+            } finally {
+                unlock(locks);
+            }
+        }
+    }
+
+    // Callers hold the product locks
+    private Map<Long, Integer> reservedByOthers(Collection<Long> productIds) {
+        Map<Long, Integer> reservedByOthers = new HashMap<>();
+        productIds.forEach(id -> reservedByOthers.put(id, held.getOrDefault(id, 0)));
+        return reservedByOthers;
+    }
+
+    // Callers hold the product locks
+    private void removeHold(Reservation reservation) {
+        reservations.remove(reservation.orderId, reservation);
+        reservation.items.forEach((productId, quantity) ->
+                held.computeIfPresent(productId, (id, current) -> current - quantity > 0 ? current - quantity : null));
+    }
+
+    // Callers hold the product lock
+    private Integer refreshStock(Long productId) {
+        Integer stock = productRepository.findById(productId).map(stripedStockService::totalStock).orElse(null);
+        if (stock != null) {
+            knownStock.put(productId, stock);
+        } else {
+            knownStock.remove(productId);
+        }
+        return stock;
+    }
+
+    private Map<Long, Integer> mergeItems(List<OrderRequest.OrderItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Reservation must contain items");
+        }
+        Map<Long, Integer> merged = new TreeMap<>();
+        for (OrderRequest.OrderItem item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product: " + item.getProductId());
+            }
+            merged.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return merged;
+    }
+
+    // Always in product ID order, so overlapping reservations and orders cannot deadlock
+    private List<Lock> lock(Collection<Long> productIds) {
+        List<Lock> locks = new ArrayList<>();
+        for (Long productId : new TreeSet<>(productIds)) {
+            Lock lock = productLock(productId).writeLock();
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    /**
+     * Locks for a direct order. Hot products with no holds against them are locked shared, so
+     * orders for them run concurrently on different stock stripes; everything else is locked
+     * exclusively. Holds and hot mode only change under the exclusive lock, so both are checked
+     * again once the shared locks are held, falling back to exclusive locks if either changed.
+     * {@code sharedIds} receives the products that ended up locked shared.
+     */
+    private List<Lock> lockForOrder(Collection<Long> productIds, Set<Long> sharedIds) {
+        List<Lock> locks = new ArrayList<>();
+        for (Long productId : new TreeSet<>(productIds)) {
+            ReadWriteLock productLock = productLock(productId);
+            boolean shared = canShare(productId);
+            Lock lock = shared ? productLock.readLock() : productLock.writeLock();
+            lock.lock();
+            locks.add(lock);
+            if (shared) sharedIds.add(productId);
+        }
+        if (!sharedIds.stream().allMatch(this::canShare)) {
+            unlock(locks);
+            sharedIds.clear();
+            return lock(productIds);
+        }
+        return locks;
+    }
+
+    private boolean canShare(Long productId) {
+        return stripedStockService.isStriped(productId) && !held.containsKey(productId);
+    }
+
+    private ReadWriteLock productLock(Long productId) {
+        return productLocks.computeIfAbsent(productId, id -> new ReentrantReadWriteLock());
+    }
+
+    private void unlock(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private OrderRequest toOrderRequest(Reservation reservation) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(reservation.orderId);
+        List<OrderRequest.OrderItem> items = new ArrayList<>();
+        reservation.items.forEach((productId, quantity) -> {
+            OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            items.add(item);
+        });
+        request.setItems(items);
+        return request;
+    }
+
+    private ReservationDTO rejected(String orderId, Map<Long, Integer> items, String message) {
+        logger.warn("Reservation rejected for order {}: {}", orderId, message);
+        ReservationDTO dto = new ReservationDTO();
+        dto.setOrderId(orderId);
+        dto.setStatus("REJECTED");
+        dto.setItems(items);
+        dto.setMessage(message);
+        return dto;
+    }
+
+    private ReservationDTO toDTO(Reservation reservation, String status, String message) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setOrderId(reservation.orderId);
+        dto.setStatus(status);
+        dto.setItems(reservation.items);
+        dto.setExpiresAt(LocalDateTime.ofInstant(reservation.expiresAt, ZoneId.systemDefault()));
+        dto.setMessage(message);
+        return dto;
+    }
+
+    private void count(String outcome) {
+        Counter.builder("inventory.reservations")
+                .description("Reservation operations by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // End to end, including lock waits, batching and commit
+    private Timer orderProcessingTimer(String outcome) {
+        return Timer.builder("inventory.orders.processing")
+                .description("Time to process a direct order")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private static final class Reservation implements Delayed {
+        private final String orderId;
+        private final Map<Long, Integer> items;
+        private final Instant expiresAt;
+
+        private Reservation(String orderId, Map<Long, Integer> items, Instant expiresAt) {
+            this.orderId = orderId;
+            this.items = items;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Reservation) other).expiresAt);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.inventoryservice.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the heaviest items in a stream, in at most {@code capacity}
+ * counters however many distinct items the stream holds. An item that arrives while every
+ * counter is taken replaces the smallest one and inherits its count, so counts can only be
+ * over-estimated, by at most the smallest count in the summary, and any item whose true
+ * total exceeds that is guaranteed to be kept. Not thread-safe.
+ */
+final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Long, long[]> counts;  // item -> {count}
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    void add(long item, long weight) {
+        long[] count = counts.get(item);
+        if (count != null) {
+            count[0] += weight;
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(item, new long[] {weight});
+            return;
+        }
+        // Only items new to a full summary pay for the scan
+        Map.Entry<Long, long[]> smallest = null;
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long inherited = smallest.getValue()[0];
+        counts.remove(smallest.getKey());
+        counts.put(item, new long[] {inherited + weight});
+    }
+
+    /**
+     * Add this summary's counts to {@code totals}, e.g. to combine the summaries of several
+     * time slices
+     */
+    void addTo(Map<Long, Long> totals) {
+        counts.forEach((item, count) -> totals.merge(item, count[0], Long::sum));
+    }
+
+    void clear() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.StockEventDTO;
+import com.example.inventoryservice.dto.StockEventPageDTO;
+import com.example.inventoryservice.model.StockEvent;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.repository.StockEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Feed of stock changes for consumers outside this service, built on a transactional outbox.
+ * Stock writers call {@link #record} inside their transaction, so an event exists exactly when
+ * its change committed. A single relay thread then publishes committed events in the order it
+ * sees them, giving each the next feed position and the product's stock level as of that
+ * moment. Positions therefore follow commit order, and the last event published for
+ * a product always carries a level at least as new as its last change, even for hot products
+ * whose stripes are decremented concurrently.
+ * <p>
+ * Consumers read from a cursor (a position) and long-poll when they are caught up. Compaction
+ * drops events that a later event for the same product supersedes once they fall behind the
+ * newest {@code inventory.stock-events.retained-events}, so the feed holds at most that many
+ * events plus one per product, and a consumer resuming from any old cursor still ends up with
+ * every product's current level.
+ */
+@Service
+public class StockEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockEventService.class);
+    private static final int RELAY_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Below the usual proxy and client idle timeouts
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    private final StockEventRepository stockEventRepository;
+    private final ProductRepository productRepository;
+    private final StripedStockService stripedStockService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration relayInterval;
+    private final long retainedEvents;
+    private final Counter publishedCounter;
+    private final Counter compactedCounter;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Thread relay;
+    private volatile long head;
+    private volatile boolean running = true;
+
+    public StockEventService(StockEventRepository stockEventRepository, ProductRepository productRepository,
+                             StripedStockService stripedStockService, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.stock-events.relay-interval:1s}") Duration relayInterval,
+                             @Value("${inventory.stock-events.retained-events:10000}") long retainedEvents) {
+        this.stockEventRepository = stockEventRepository;
+        this.productRepository = productRepository;
+        this.stripedStockService = stripedStockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayInterval = relayInterval;
+        this.retainedEvents = retainedEvents;
+        this.publishedCounter = Counter.builder("inventory.stock.events.published")
+                .description("Stock change events published to the feed")
+                .register(meterRegistry);
+        this.compactedCounter = Counter.builder("inventory.stock.events.compacted")
+                .description("Superseded stock change events removed from the feed")
+                .register(meterRegistry);
+        this.relay = new Thread(this::relay, "stock-event-relay");
+        this.relay.setDaemon(true);
+    }
+
+    private record Waiter(long cursor, int limit, DeferredResult<StockEventPageDTO> result) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        head = stockEventRepository.findLastPosition();
+        relay.start();
+        logger.info("Stock event feed starting at position {}", head);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        relay.interrupt();
+    }
+
+    /**
+     * Record a stock change in the caller's transaction. It is published once that commits
+     * and discarded with it on rollback.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long productId, int quantityChange, String cause, String reference) {
+        StockEvent event = new StockEvent();
+        event.setProductId(productId);
+        event.setQuantityChange(quantityChange);
+        event.setCause(cause);
+        event.setReference(reference);
+        event.setOccurredAt(LocalDateTime.now());
+        stockEventRepository.save(event);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeups.release();
+            }
+        });
+    }
+
+    /**
+     * Events after {@code cursor}, at most {@code limit}. When there are none yet the result
+     * stays open for up to {@code wait} and completes as soon as one is published; an empty
+     * page on timeout returns the same cursor. A null cursor starts at the current end of
+     * the feed without returning history.
+     */
+    public DeferredResult<StockEventPageDTO> poll(Long cursor, int limit, Duration wait) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (wait.isNegative() || wait.compareTo(MAX_WAIT) > 0) {
+            throw new IllegalArgumentException("wait must be between 0 and " + MAX_WAIT.toSeconds() + " seconds");
+        }
+        long from = cursor != null ? cursor : head;
+        DeferredResult<StockEventPageDTO> result = new DeferredResult<>(wait.toMillis(), () -> emptyPage(from, false));
+        if (from > head) {
+            // Positions only grow, so the consumer followed a feed that has since been lost
+            result.setResult(emptyPage(head, true));
+            return result;
+        }
+        Waiter waiter = new Waiter(from, limit, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // Re-check after registering, so an event published in between is not missed
+        if (from < head || wait.isZero()) {
+            complete(waiter);
+        }
+        return result;
+    }
+
+    /**
+     * Drop superseded events that have fallen out of the retention window
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-events.compaction-interval-ms:60000}")
+    public void compact() {
+        long horizon = head - retainedEvents;
+        if (horizon <= 0) return;
+        Integer removed = transactionTemplate.execute(status -> stockEventRepository.deleteSupersededUpTo(horizon));
+        if (removed != null && removed > 0) {
+            compactedCounter.increment(removed);
+            logger.debug("Compacted {} stock events up to position {}", removed, horizon);
+        }
+    }
+
+    private void relay() {
+        while (running) {
+            try {
+                // Woken by each commit that recorded events; the timeout picks up any wakeup that was missed
+                wakeups.tryAcquire(relayInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+                publishPending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Publishing stock events failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void publishPending() {
+        int published;
+        do {
+            long from = head;
+            Integer count = transactionTemplate.execute(status -> {
+                List<StockEvent> pending = stockEventRepository.findUnpublished(PageRequest.of(0, RELAY_BATCH_SIZE));
+                if (pending.isEmpty()) return 0;
+                Set<Long> productIds = pending.stream().map(StockEvent::getProductId).collect(Collectors.toSet());
+                Map<Long, Integer> levels = stripedStockService.totalStock(productRepository.findAllById(productIds));
+                long position = from;
+                for (StockEvent event : pending) {
+                    event.setPosition(++position);
+                    event.setStockQuantity(levels.get(event.getProductId()));
+                }
+                return pending.size();
+            });
+            published = count != null ? count : 0;
+            if (published > 0) {
+                head = from + published;
+                publishedCounter.increment(published);
+                for (Waiter waiter : waiters) {
+                    if (waiter.cursor() < head) {
+                        complete(waiter);
+                    }
+                }
+            }
+        } while (published == RELAY_BATCH_SIZE);
+    }
+
+    private void complete(Waiter waiter) {
+        if (waiter.result().isSetOrExpired()) return;
+        waiter.result().setResult(readPage(waiter.cursor(), waiter.limit()));
+    }
+
+    private StockEventPageDTO readPage(long cursor, int limit) {
+        List<StockEventDTO> events = stockEventRepository.findPublishedAfter(cursor, PageRequest.of(0, limit)).stream()
+                .map(this::mapToDTO)
+                .toList();
+        StockEventPageDTO page = new StockEventPageDTO();
+        page.setEvents(events);
+        page.setCursor(events.isEmpty() ? cursor : events.get(events.size() - 1).getPosition());
+        return page;
+    }
+
+    private StockEventPageDTO emptyPage(long cursor, boolean reset) {
+        StockEventPageDTO page = new StockEventPageDTO();
+        page.setEvents(List.of());
+        page.setCursor(cursor);
+        page.setReset(reset);
+        return page;
+    }
+
+    private StockEventDTO mapToDTO(StockEvent event) {
+        StockEventDTO dto = new StockEventDTO();
+        dto.setPosition(event.getPosition());
+        dto.setProductId(event.getProductId());
+        dto.setStockQuantity(event.getStockQuantity());
+        dto.setQuantityChange(event.getQuantityChange());
+        dto.setCause(event.getCause());
+        dto.setReference(event.getReference());
+        dto.setOccurredAt(event.getOccurredAt());
+        return dto;
+    }
+}
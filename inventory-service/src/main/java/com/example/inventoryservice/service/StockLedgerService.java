@@ -0,0 +1,333 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.StockLedgerDTO;
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.model.StockLedgerEntry;
+import com.example.inventoryservice.model.StockSnapshot;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.repository.StockLedgerRepository;
+import com.example.inventoryservice.repository.StockSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only history of every stock movement. Each stock write appends its entry in the same
+ * transaction, so the ledger holds exactly the movements that committed. The compactor folds
+ * entries into one {@link StockSnapshot} per product in the background, which keeps deriving
+ * a product's stock (snapshot plus the entries not folded in yet) cheap however long the
+ * history grows. Folded entries stay as history for {@code inventory.stock-ledger.history-retention}.
+ * <p>
+ * Entries are folded by marking them, not by ID range: IDs are handed out before commit, so a
+ * transaction with a lower ID can commit after one with a higher ID has been folded.
+ * <p>
+ * The product's stock column (or its stripes in hot-stock mode) stays what orders check and
+ * decrement, because it makes the "never below zero" guard a single atomic statement. The
+ * ledger is the check on it: after folding, the compactor compares the stock of every product
+ * it touched, plus the next slice of the whole catalog, with the stock derived from the
+ * ledger, and flags any product where the two differ ({@code inventory.stock.ledger.mismatched}).
+ * {@link #history} shows both values side by side.
+ */
+@Service
+public class StockLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedgerService.class);
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final StockLedgerRepository ledgerRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final ProductRepository productRepository;
+    private final StripedStockService stripedStockService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration historyRetention;
+    private final Counter appendedCounter;
+    private final Counter compactedCounter;
+    private final Counter purgedCounter;
+    private final Counter mismatchCounter;
+    private final Set<Long> mismatched = ConcurrentHashMap.newKeySet();
+    private long sweepCursor;  // guarded by compact()
+
+    public StockLedgerService(StockLedgerRepository ledgerRepository, StockSnapshotRepository snapshotRepository,
+                              ProductRepository productRepository, StripedStockService stripedStockService,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${inventory.stock-ledger.compaction-batch-size:5000}") int batchSize,
+                              @Value("${inventory.stock-ledger.history-retention:90d}") Duration historyRetention) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("inventory.stock-ledger.compaction-batch-size must be at least 1");
+        }
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.productRepository = productRepository;
+        this.stripedStockService = stripedStockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.historyRetention = historyRetention;
+        this.appendedCounter = Counter.builder("inventory.stock.ledger.appended")
+                .description("Stock movements appended to the ledger")
+                .register(meterRegistry);
+        this.compactedCounter = Counter.builder("inventory.stock.ledger.compacted")
+                .description("Stock ledger entries folded into snapshots")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("inventory.stock.ledger.purged")
+                .description("Folded stock ledger entries removed after the history retention")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("inventory.stock.ledger.mismatches")
+                .description("Products found with stock that differs from the stock derived from their ledger")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock.ledger.mismatched", mismatched, Set::size)
+                .description("Products whose stock currently differs from the stock derived from their ledger")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Products that have neither a snapshot nor any ledger entries, i.e. were stored before the
+     * ledger existed, start from a snapshot of their current stock. Runs before the web server
+     * accepts requests, so no stock can move meanwhile.
+     */
+    @PostConstruct
+    public void baselineProductsWithoutHistory() {
+        List<Long> productIds = snapshotRepository.findProductsWithoutHistory();
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<Long> batch = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Integer> stock = stripedStockService.totalStock(productRepository.findAllById(batch));
+                LocalDateTime now = LocalDateTime.now();
+                List<StockSnapshot> snapshots = new ArrayList<>(stock.size());
+                stock.forEach((productId, quantity) -> {
+                    StockSnapshot snapshot = emptySnapshot(productId);
+                    snapshot.setQuantity((long) quantity);
+                    snapshot.setTakenAt(now);
+                    snapshots.add(snapshot);
+                });
+                snapshotRepository.saveAll(snapshots);
+            });
+        }
+        if (!productIds.isEmpty()) {
+            logger.info("Started the stock ledger of {} products from their current stock", productIds.size());
+        }
+    }
+
+    /**
+     * Append a movement of {@code quantity} units (negative when stock goes out) in the
+     * caller's transaction, which must also apply the movement to the stock itself
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long productId, StockLedgerEntry.Type type, int quantity, String reference) {
+        ledgerRepository.save(newEntry(productId, type, quantity, reference));
+        appendedCounter.increment();
+    }
+
+    /**
+     * Record the stock new products start with as a restock. The products must have their IDs.
+     */
+    @Transactional
+    public void recordOpeningStock(Collection<Product> products) {
+        List<StockLedgerEntry> entries = products.stream()
+                .filter(product -> product.getStockQuantity() != null && product.getStockQuantity() != 0)
+                .map(product -> newEntry(product.getId(), StockLedgerEntry.Type.RESTOCK, product.getStockQuantity(), "opening stock"))
+                .toList();
+        ledgerRepository.saveAll(entries);
+        appendedCounter.increment(entries.size());
+    }
+
+    /**
+     * Drop a deleted product's ledger entries and snapshot, in the caller's transaction if any
+     */
+    @Transactional
+    public void forget(Long productId) {
+        ledgerRepository.deleteByProductId(productId);
+        snapshotRepository.deleteByProductId(productId);
+        mismatched.remove(productId);
+    }
+
+    /**
+     * The product's ledger, newest entries first, next to its live stock and the stock derived
+     * from the ledger. Page with {@code before}, the ID of the oldest entry already seen.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockLedgerDTO> history(Long productId, Long before, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isEmpty()) {
+            return Optional.empty();
+        }
+        StockLedgerDTO dto = new StockLedgerDTO();
+        dto.setProductId(productId);
+        dto.setStockQuantity(stripedStockService.totalStock(product.get()));
+        dto.setDerivedStock(ledgerRepository.derivedStock(productId));
+        snapshotRepository.findById(productId).ifPresent(snapshot -> {
+            dto.setSnapshotQuantity(snapshot.getQuantity());
+            dto.setSnapshotTakenAt(snapshot.getTakenAt());
+        });
+
+        // One extra row tells us whether there are older entries
+        List<StockLedgerEntry> rows = ledgerRepository.findHistory(productId, before != null ? before : Long.MAX_VALUE,
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<StockLedgerEntry> entries = hasMore ? rows.subList(0, limit) : rows;
+        dto.setEntries(entries.stream().map(this::mapToDTO).toList());
+        dto.setNextBefore(hasMore ? entries.get(limit - 1).getId() : null);
+        return Optional.of(dto);
+    }
+
+    /**
+     * Roll snapshots forward over the entries appended since the last run, one short
+     * transaction per batch, check the stock of the products they touched and of the next
+     * slice of the catalog against their ledger, then drop folded entries older than the
+     * history retention. Runs one at a time: two runs folding the same entries would count
+     * them twice.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-ledger.compaction-interval-ms:60000}")
+    public synchronized void compact() {
+        Set<Long> touched = new HashSet<>();
+        int folded = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> foldBatch(touched));
+            batch = count != null ? count : 0;
+            folded += batch;
+        } while (batch == batchSize);
+        if (folded > 0) {
+            compactedCounter.increment(folded);
+            logger.debug("Folded {} stock ledger entries into snapshots", folded);
+        }
+        transactionTemplate.executeWithoutResult(status -> snapshotRepository.deleteOrphaned());
+        reconcile(touched);
+        sweep();
+        purgeHistory();
+    }
+
+    /**
+     * Products whose stock differed from their ledger when last checked
+     */
+    Set<Long> mismatchedProducts() {
+        return Set.copyOf(mismatched);
+    }
+
+    private int foldBatch(Set<Long> touched) {
+        List<StockLedgerEntry> entries = ledgerRepository.findUncompacted(PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) return 0;
+        Set<Long> productIds = entries.stream().map(StockLedgerEntry::getProductId).collect(Collectors.toSet());
+        touched.addAll(productIds);
+        Map<Long, StockSnapshot> snapshots = new HashMap<>();
+        snapshotRepository.findAllById(productIds).forEach(snapshot -> snapshots.put(snapshot.getProductId(), snapshot));
+        LocalDateTime now = LocalDateTime.now();
+        for (StockLedgerEntry entry : entries) {
+            StockSnapshot snapshot = snapshots.computeIfAbsent(entry.getProductId(), this::emptySnapshot);
+            snapshot.setQuantity(snapshot.getQuantity() + entry.getQuantity());
+            snapshot.setEntriesFolded(snapshot.getEntriesFolded() + 1);
+            if (snapshot.getLastEntryId() == null || entry.getId() > snapshot.getLastEntryId()) {
+                snapshot.setLastEntryId(entry.getId());
+            }
+            snapshot.setTakenAt(now);
+        }
+        snapshotRepository.saveAll(snapshots.values());
+        ledgerRepository.markCompacted(entries.stream().map(StockLedgerEntry::getId).toList());
+        return entries.size();
+    }
+
+    // The next batch of the catalog in ID order, so drift without ledger entries is found too
+    private void sweep() {
+        List<Long> productIds = productRepository.findIdsAfter(sweepCursor, PageRequest.of(0, batchSize));
+        sweepCursor = productIds.size() < batchSize ? 0 : productIds.get(productIds.size() - 1);
+        reconcile(productIds);
+    }
+
+    private void reconcile(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Set<Long> differing = new HashSet<>();
+            for (Object[] row : ledgerRepository.findMismatches(batch)) {
+                Long productId = ((Number) row[0]).longValue();
+                differing.add(productId);
+                if (mismatched.add(productId)) {
+                    mismatchCounter.increment();
+                    logger.warn("Stock of product {} is {} but its ledger adds up to {}", productId, row[1], row[2]);
+                }
+            }
+            for (Long productId : batch) {
+                if (!differing.contains(productId) && mismatched.remove(productId)) {
+                    logger.info("Stock of product {} matches its ledger again", productId);
+                }
+            }
+        }
+    }
+
+    private void purgeHistory() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(historyRetention);
+        int purged = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = ledgerRepository.findCompactedBefore(cutoff, PageRequest.of(0, batchSize));
+                if (!ids.isEmpty()) {
+                    ledgerRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            batch = count != null ? count : 0;
+            purged += batch;
+        } while (batch == batchSize);
+        if (purged > 0) {
+            purgedCounter.increment(purged);
+            logger.debug("Removed {} stock ledger entries recorded before {}", purged, cutoff);
+        }
+    }
+
+    private StockLedgerEntry newEntry(Long productId, StockLedgerEntry.Type type, int quantity, String reference) {
+        StockLedgerEntry entry = new StockLedgerEntry();
+        entry.setProductId(productId);
+        entry.setType(type);
+        entry.setQuantity(quantity);
+        entry.setReference(reference);
+        entry.setRecordedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    private StockSnapshot emptySnapshot(Long productId) {
+        StockSnapshot snapshot = new StockSnapshot();
+        snapshot.setProductId(productId);
+        snapshot.setQuantity(0L);
+        snapshot.setEntriesFolded(0L);
+        return snapshot;
+    }
+
+    private StockLedgerDTO.Entry mapToDTO(StockLedgerEntry entry) {
+        StockLedgerDTO.Entry dto = new StockLedgerDTO.Entry();
+        dto.setId(entry.getId());
+        dto.setType(entry.getType());
+        dto.setQuantity(entry.getQuantity());
+        dto.setReference(entry.getReference());
+        dto.setRecordedAt(entry.getRecordedAt());
+        dto.setCompacted(entry.isCompacted());
+        return dto;
+    }
+}
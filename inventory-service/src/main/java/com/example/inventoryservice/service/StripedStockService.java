@@ -0,0 +1,244 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.model.StockStripe;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.repository.StockStripeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hot-SKU mode. A striped product's stock is split across N {@link StockStripe} rows so that
+ * concurrent orders decrement different rows instead of all queueing on the product row and
+ * its version. An order draws from the stripe its order ID hashes to and walks on to the
+ * neighbouring stripes when that one is short; under the product's exclusive lock it may also
+ * split the quantity across several stripes as a last resort. The product's stock is always
+ * the exact sum of its stripes.
+ * <p>
+ * Switching a product in or out of hot mode, and changing its stock, must run under the
+ * product's exclusive lock in {@link ReservationService} so no order is in flight meanwhile.
+ */
+@Service
+public class StripedStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedStockService.class);
+
+    private final ProductRepository productRepository;
+    private final StockStripeRepository stripeRepository;
+    private final MeterRegistry meterRegistry;
+    private final int maxStripes;
+
+    // Product ID -> stripe count, for every product currently in hot mode
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StripedStockService(ProductRepository productRepository, StockStripeRepository stripeRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.hot-stock.max-stripes:64}") int maxStripes) {
+        this.productRepository = productRepository;
+        this.stripeRepository = stripeRepository;
+        this.meterRegistry = meterRegistry;
+        this.maxStripes = maxStripes;
+    }
+
+    @PostConstruct
+    public void loadStripedProducts() {
+        for (Object[] row : productRepository.findStripedProducts()) {
+            stripeCounts.put((Long) row[0], (Integer) row[1]);
+        }
+        logger.info("Loaded {} products in hot-stock mode", stripeCounts.size());
+    }
+
+    public boolean isStriped(Long productId) {
+        return productId != null && stripeCounts.containsKey(productId);
+    }
+
+    /**
+     * The product's real stock: its own column, or the sum of its stripes in hot mode
+     */
+    public int totalStock(Product product) {
+        if (!isStriped(product.getId())) {
+            return product.getStockQuantity();
+        }
+        return (int) stripeRepository.totalStock(product.getId());
+    }
+
+    /**
+     * Real stock for each of {@code products} in one query for all striped ones
+     */
+    public Map<Long, Integer> totalStock(Collection<Product> products) {
+        Map<Long, Integer> totals = new HashMap<>();
+        List<Long> striped = new ArrayList<>();
+        for (Product product : products) {
+            if (isStriped(product.getId())) {
+                striped.add(product.getId());
+                totals.put(product.getId(), 0);
+            } else {
+                totals.put(product.getId(), product.getStockQuantity());
+            }
+        }
+        if (!striped.isEmpty()) {
+            for (Object[] row : stripeRepository.totalStockByProduct(striped)) {
+                totals.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return totals;
+    }
+
+    @Transactional
+    public void enable(Long productId, int stripes) {
+        if (stripes < 2 || stripes > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between 2 and " + maxStripes);
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        int total = totalStock(product);
+        writeStripes(productId, stripes, total);
+        product.setStockQuantity(0);
+        product.setStockStripes(stripes);
+        productRepository.save(product);
+        stripeCounts.put(productId, stripes);
+        logger.info("Product {} switched to hot-stock mode with {} stripes ({} units)", productId, stripes, total);
+    }
+
+    @Transactional
+    public void disable(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        if (!isStriped(productId)) {
+            return;
+        }
+        int total = totalStock(product);
+        stripeRepository.deleteByProductId(productId);
+        product.setStockQuantity(total);
+        product.setStockStripes(null);
+        productRepository.save(product);
+        stripeCounts.remove(productId);
+        logger.info("Product {} switched back to a single stock row ({} units)", productId, total);
+    }
+
+    /**
+     * Set a striped product's stock, spreading it evenly over its stripes
+     */
+    @Transactional
+    public void setStock(Long productId, int stock) {
+        Integer stripes = stripeCounts.get(productId);
+        if (stripes == null) {
+            throw new IllegalStateException("Product is not in hot-stock mode: " + productId);
+        }
+        writeStripes(productId, stripes, stock);
+    }
+
+    @Transactional
+    public void forget(Long productId) {
+        if (stripeCounts.remove(productId) != null) {
+            stripeRepository.deleteByProductId(productId);
+        }
+    }
+
+    /**
+     * Take {@code quantity} units within the caller's transaction. With {@code reserved} &gt; 0
+     * the caller must hold the product's exclusive lock, since the check against the total
+     * is only exact while no other order touches the stripes.
+     * <p>
+     * Orders holding the product lock {@code shared} run side by side, and a guarded update
+     * keeps its row locked even when it finds the stripe short. They therefore only try their
+     * home stripe and the stripes above it, in ascending order, so two of them can never wait
+     * on each other's stripes, and never split. When that finds nothing the order fails and
+     * should be retried under the exclusive lock, which can draw on every stripe.
+     */
+    public boolean decrement(Long productId, String orderId, int quantity, int reserved, boolean shared) {
+        int stripes = stripeCounts.get(productId);
+        if (reserved > 0 && stripeRepository.totalStock(productId) - reserved < quantity) {
+            return false;
+        }
+
+        int home = homeStripe(orderId, stripes);
+        if (shared) {
+            for (int stripe = home; stripe < stripes; stripe++) {
+                if (stripeRepository.decrement(productId, stripe, quantity) == 1) {
+                    count(stripe == home ? "home" : "neighbour");
+                    return true;
+                }
+            }
+            count("shared_miss");
+            return false;
+        }
+        for (int i = 0; i < stripes; i++) {
+            if (stripeRepository.decrement(productId, (home + i) % stripes, quantity) == 1) {
+                count(i == 0 ? "home" : "neighbour");
+                return true;
+            }
+        }
+
+        // No single stripe covers the order: take what each has, walking on from the home stripe
+        Map<Integer, Integer> rows = new HashMap<>();
+        stripeRepository.findByProductIdOrderByStripeIndex(productId)
+                .forEach(stripe -> rows.put(stripe.getStripeIndex(), stripe.getQuantity()));
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        int remaining = quantity;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            int stripe = (home + i) % stripes;
+            int take = Math.min(remaining, rows.getOrDefault(stripe, 0));
+            if (take > 0 && stripeRepository.decrement(productId, stripe, take) == 1) {
+                taken.put(stripe, take);
+                remaining -= take;
+            }
+        }
+        if (remaining == 0) {
+            count("split");
+            return true;
+        }
+        taken.forEach((stripe, take) -> stripeRepository.increment(productId, stripe, take));
+        count("insufficient");
+        return false;
+    }
+
+    /**
+     * Give back units taken by {@link #decrement}; they go to the order's home stripe, so the
+     * caller must hold the product's exclusive lock
+     */
+    public void increment(Long productId, String orderId, int quantity) {
+        stripeRepository.increment(productId, homeStripe(orderId, stripeCounts.get(productId)), quantity);
+    }
+
+    private void writeStripes(Long productId, int stripes, int total) {
+        stripeRepository.deleteByProductId(productId);
+        List<StockStripe> rows = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            StockStripe stripe = new StockStripe();
+            stripe.setProductId(productId);
+            stripe.setStripeIndex(i);
+            stripe.setQuantity(total / stripes + (i < total % stripes ? 1 : 0));
+            rows.add(stripe);
+        }
+        stripeRepository.saveAll(rows);
+    }
+
+    private int homeStripe(String orderId, int stripes) {
+        return Math.floorMod(orderId.hashCode(), stripes);
+    }
+
+    private void count(String outcome) {
+        Counter.builder("inventory.stock.stripe.draws")
+                .description("Striped stock decrements by how the stripe was found")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
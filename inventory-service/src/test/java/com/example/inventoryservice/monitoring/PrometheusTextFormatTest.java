@@ -0,0 +1,111 @@
+package com.example.inventoryservice.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrometheusTextFormatTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void escapesLabelValuesAndHelpText() {
+        Counter.builder("orders.processed")
+                .description("Orders \"done\"\nacross C:\\ and D:\\")
+                .tag("path", "a\\b\"c\nd")
+                .register(registry)
+                .increment(3);
+
+        assertThat(lines()).containsExactly(
+                "# HELP orders_processed_total Orders \"done\"\\nacross C:\\\\ and D:\\\\",
+                "# TYPE orders_processed_total counter",
+                "orders_processed_total{path=\"a\\\\b\\\"c\\nd\"} 3");
+    }
+
+    @Test
+    void sanitizesNamesAndLabelKeysAndAppendsUnits() {
+        Counter.builder("1st.metric-name").tag("http.method", "GET").register(registry).increment();
+        Counter.builder("requests.total").register(registry).increment();
+        Gauge.builder("queue.size", () -> 2.5).baseUnit("bytes").register(registry);
+        Gauge.builder("nothing.yet", () -> Double.NaN).register(registry);
+
+        assertThat(lines()).contains(
+                "_1st_metric_name_total{http_method=\"GET\"} 1",
+                "requests_total 1",
+                "# TYPE queue_size_bytes gauge",
+                "queue_size_bytes 2.5",
+                "nothing_yet NaN");
+    }
+
+    @Test
+    void rendersTimersWithBucketsAsCumulativeHistogramsInSeconds() {
+        Timer timer = Timer.builder("checkout.latency")
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100))
+                .tag("outcome", "ok")
+                .register(registry);
+        timer.record(Duration.ofMillis(5));
+        timer.record(Duration.ofMillis(50));
+        timer.record(Duration.ofMillis(500));
+
+        List<String> lines = lines();
+        assertThat(lines).containsSubsequence(
+                "# TYPE checkout_latency_seconds histogram",
+                "checkout_latency_seconds_bucket{outcome=\"ok\",le=\"0.01\"} 1",
+                "checkout_latency_seconds_bucket{outcome=\"ok\",le=\"0.1\"} 2",
+                "checkout_latency_seconds_bucket{outcome=\"ok\",le=\"+Inf\"} 3",
+                "checkout_latency_seconds_count{outcome=\"ok\"} 3",
+                "checkout_latency_seconds_sum{outcome=\"ok\"} 0.555");
+        assertThat(lines).contains(
+                "# TYPE checkout_latency_seconds_max gauge",
+                "checkout_latency_seconds_max{outcome=\"ok\"} 0.5");
+    }
+
+    @Test
+    void rendersDistributionsWithoutBucketsAsSummariesWithSeparatePercentiles() {
+        DistributionSummary summary = DistributionSummary.builder("payload.size")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5)
+                .register(registry);
+        summary.record(100);
+        summary.record(300);
+
+        List<String> lines = lines();
+        assertThat(lines).containsSubsequence(
+                "# TYPE payload_size_bytes summary",
+                "payload_size_bytes_count 2",
+                "payload_size_bytes_sum 400");
+        assertThat(lines).contains("# TYPE payload_size_bytes_percentile gauge");
+        assertThat(lines).anyMatch(line -> line.startsWith("payload_size_bytes_percentile{quantile=\"0.5\"} "));
+        // The registry's own percentile gauge is rendered once, with its summary
+        assertThat(lines).filteredOn(line -> line.startsWith("# TYPE ")).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void writesEachFamilyOnceInNameOrder() {
+        Counter.builder("b.events").tag("kind", "x").register(registry).increment();
+        Counter.builder("a.events").register(registry).increment();
+        Counter.builder("b.events").tag("kind", "y").register(registry).increment(2);
+
+        assertThat(lines()).containsExactly(
+                "# HELP a_events_total a_events_total",
+                "# TYPE a_events_total counter",
+                "a_events_total 1",
+                "# HELP b_events_total b_events_total",
+                "# TYPE b_events_total counter",
+                "b_events_total{kind=\"x\"} 1",
+                "b_events_total{kind=\"y\"} 2");
+    }
+
+    private List<String> lines() {
+        return PrometheusTextFormat.scrape(registry).lines().toList();
+    }
+}
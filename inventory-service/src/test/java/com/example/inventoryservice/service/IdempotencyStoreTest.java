@@ -0,0 +1,180 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.model.StockLedgerEntry;
+import com.example.inventoryservice.repository.OrderRepository;
+import com.example.inventoryservice.repository.StockLedgerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class IdempotencyStoreTest {
+
+    private static final String PROCESSED = "Order processed successfully. Inventory updated.";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockLedgerRepository ledgerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void resultIsForgottenOnceItsTtlHasPassed() throws InterruptedException {
+        IdempotencyStore store = store(Duration.ofMillis(300), 2, new SimpleMeterRegistry());
+        String orderId = orderId();
+        record(store, orderId);
+        assertThat(store.findRecent(orderId)).isEqualTo("done");
+        assertThat(find(store, orderId)).isEqualTo("done");
+
+        Thread.sleep(400);
+
+        assertThat(store.findRecent(orderId)).isNull();
+        store.purgeExpired();
+        assertThat(find(store, orderId)).isNull();
+    }
+
+    @Test
+    void purgeDeletesEveryExpiredRecordInBatchesAndKeepsTheRest() throws InterruptedException {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IdempotencyStore store = store(Duration.ofMillis(300), 2, meterRegistry);
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(orderId());
+            record(store, expired.get(i));
+        }
+        Thread.sleep(400);
+        String fresh = orderId();
+        record(store, fresh);
+
+        store.purgeExpired();
+
+        // Five records with batches of two: the purge has to go round until a batch comes back short
+        assertThat(orderRepository.findAllById(expired)).isEmpty();
+        assertThat(orderRepository.existsById(fresh)).isTrue();
+        assertThat(store.findRecent(fresh)).isEqualTo("done");
+        expired.forEach(orderId -> assertThat(store.findRecent(orderId)).isNull());
+        // Records other tests left behind may have expired with them
+        assertThat(meterRegistry.get("inventory.idempotency.purged").counter().count()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void concurrentDuplicateDirectOrdersTakeStockOnce() throws Exception {
+        Long productId = product(100);
+
+        assertThat(submitConcurrently(order(orderId(), productId, 3), 20)).containsOnly(PROCESSED);
+
+        assertThat(stock(productId)).isEqualTo(97);
+        assertThat(sales(productId)).isEqualTo(1);
+    }
+
+    /**
+     * Orders for hot products hold the product lock only shared, so only the order-ID lock
+     * keeps two submits of the same order from both passing the idempotency check
+     */
+    @Test
+    void concurrentDuplicateDirectOrdersForAHotProductTakeStockOnce() throws Exception {
+        Long productId = product(100);
+        productService.enableHotStock(productId, 8);
+
+        assertThat(submitConcurrently(order(orderId(), productId, 3), 20)).containsOnly(PROCESSED);
+
+        assertThat(stock(productId)).isEqualTo(97);
+        assertThat(sales(productId)).isEqualTo(1);
+    }
+
+    private List<String> submitConcurrently(OrderRequest order, int submits) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(submits);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < submits; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return reservationService.processOrder(order);
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private IdempotencyStore store(Duration ttl, int purgeBatchSize, MeterRegistry meterRegistry) {
+        return new IdempotencyStore(orderRepository, transactionManager, meterRegistry, ttl, 100, purgeBatchSize);
+    }
+
+    private void record(IdempotencyStore store, String orderId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> store.record(orderId, "done"));
+    }
+
+    private String find(IdempotencyStore store, String orderId) {
+        return new TransactionTemplate(transactionManager).execute(status -> store.find(orderId).orElse(null));
+    }
+
+    private long sales(Long productId) {
+        return ledgerRepository.findHistory(productId, Long.MAX_VALUE, PageRequest.of(0, 100)).stream()
+                .filter(entry -> entry.getType() == StockLedgerEntry.Type.SALE)
+                .count();
+    }
+
+    private int stock(Long productId) {
+        return productService.getProductById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private Long product(int stock) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName("Idempotent");
+        dto.setPrice(1.0);
+        dto.setStockQuantity(stock);
+        return productService.addProduct(dto).getId();
+    }
+
+    private static String orderId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static OrderRequest order(String orderId, Long productId, int quantity) {
+        OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(orderId);
+        request.setItems(List.of(item));
+        return request;
+    }
+}
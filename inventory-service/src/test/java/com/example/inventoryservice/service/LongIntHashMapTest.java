@@ -0,0 +1,88 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void returnsMissingForAbsentKeys() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThat(map.get(0L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.get(42L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void putsAndUpdatesValues() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(7L, 1);
+        map.put(0L, 0);
+        map.put(-3L, 5);
+        map.put(7L, 9);
+
+        assertThat(map.get(7L)).isEqualTo(9);
+        assertThat(map.get(0L)).isZero();
+        assertThat(map.get(-3L)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThatThrownBy(() -> map.put(1L, LongIntHashMap.MISSING))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Values must not be negative");
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i, i * 2);
+        }
+
+        assertThat(map.size()).isEqualTo(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(map.get(i)).isEqualTo(i * 2);
+        }
+        assertThat(map.get(1_000L)).isEqualTo(LongIntHashMap.MISSING);
+    }
+
+    @Test
+    void matchesHashMapForCollidingAndExtremeKeys() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        long[] special = {0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 1L << 32, 1L << 40, -(1L << 32)};
+        for (long key : special) {
+            map.put(key, expected.size());
+            expected.put(key, expected.size());
+        }
+        for (int i = 0; i < 5_000; i++) {
+            // Multiples of a large power of two agree in every low bit, so only the hash spreads them
+            long key = random.nextBoolean() ? random.nextInt(2_000) * (1L << 20) : random.nextLong();
+            int value = random.nextInt(Integer.MAX_VALUE);
+            map.put(key, value);
+            expected.put(key, value);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).as("key %d", key).isEqualTo(value));
+        for (int i = 0; i < 1_000; i++) {
+            long key = random.nextLong();
+            if (!expected.containsKey(key)) {
+                assertThat(map.get(key)).isEqualTo(LongIntHashMap.MISSING);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.model.StockLedgerEntry;
+import com.example.inventoryservice.repository.OrderRepository;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.repository.StockLedgerRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class OrderBatcherTest {
+
+    private static final String PROCESSED = "Order processed successfully. Inventory updated.";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private StripedStockService stripedStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockLedgerRepository ledgerRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationService batching;
+
+    @AfterEach
+    void shutDownBatcher() {
+        if (batching != null) {
+            batching.shutdown();
+        }
+    }
+
+    @Test
+    void ordersInOneBatchSucceedOrFailEachOnTheirOwn() {
+        Long product = product(10);
+        Long missing = product(1);
+        productService.deleteProduct(missing);
+        String first = orderId();
+        String unknownProduct = orderId();
+        String third = orderId();
+
+        List<String> results = orderService.processOrders(List.of(
+                order(first, product, 2),
+                order(unknownProduct, product, 1, missing, 1),
+                order(third, product, 3)), Map.of());
+
+        assertThat(results).containsExactly(PROCESSED, "Product not found: " + missing, PROCESSED);
+        assertThat(stock(product)).isEqualTo(5);
+        assertThat(orderRepository.existsById(first)).isTrue();
+        assertThat(orderRepository.existsById(unknownProduct)).isFalse();
+        assertThat(orderRepository.existsById(third)).isTrue();
+        assertThat(saleReferences(product)).containsExactlyInAnyOrder(first, third);
+    }
+
+    @Test
+    void outOfStockOrderInABatchGivesBackItsOtherLines() {
+        Long plenty = product(10);
+        Long scarce = product(2);
+        String before = orderId();
+        String outOfStock = orderId();
+        String after = orderId();
+
+        List<String> results = orderService.processOrders(List.of(
+                order(before, plenty, 1, scarce, 1),
+                order(outOfStock, plenty, 4, scarce, 2),
+                order(after, plenty, 3)), Map.of());
+
+        assertThat(results).containsExactly(PROCESSED, "Insufficient stock for product ID: " + scarce, PROCESSED);
+        assertThat(stock(plenty)).isEqualTo(6);
+        assertThat(stock(scarce)).isEqualTo(1);
+        assertThat(orderRepository.existsById(outOfStock)).isFalse();
+        // Nothing of the rejected order reaches the ledger, so it still agrees with the stock
+        assertThat(saleReferences(plenty)).containsExactlyInAnyOrder(before, after);
+        assertThat(ledgerRepository.derivedStock(plenty)).isEqualTo(6);
+        assertThat(ledgerRepository.derivedStock(scarce)).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateOrderIdInOneBatchIsAppliedOnce() throws Exception {
+        Long product = product(10);
+        String duplicate = orderId();
+        batching = batching(3);
+
+        List<String> results = submitConcurrently(List.of(
+                order(duplicate, product, 4),
+                order(duplicate, product, 4),
+                order(orderId(), product, 1)));
+
+        assertThat(results).containsOnly(PROCESSED);
+        assertThat(stock(product)).isEqualTo(5);
+        assertThat(saleReferences(product)).filteredOn(duplicate::equals).hasSize(1);
+        assertThat(batchSizes().max()).isEqualTo(3);
+    }
+
+    @Test
+    void duplicateOrderIdInALaterBatchReplaysTheResult() throws Exception {
+        Long product = product(10);
+        String repeated = orderId();
+        batching = batching(2);
+        submitConcurrently(List.of(order(repeated, product, 4), order(orderId(), product, 1)));
+
+        // A retry reaching the batcher is answered from memory, before it is queued
+        assertThat(batching.processOrder(order(repeated, product, 4))).isEqualTo(PROCESSED);
+        // and one that made it into a later batch is replayed inside that batch's transaction
+        List<String> results = orderService.processOrders(List.of(order(repeated, product, 4), order(orderId(), product, 2)), Map.of());
+
+        assertThat(results).containsOnly(PROCESSED);
+        assertThat(stock(product)).isEqualTo(3);
+        assertThat(saleReferences(product)).filteredOn(repeated::equals).hasSize(1);
+        assertThat(batchSizes().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failingOrderRollsBackItsBatchAndOnlyFailsItsOwnCaller() throws Exception {
+        Long product = product(10);
+        String first = orderId();
+        String invalid = orderId();
+        String third = orderId();
+        batching = batching(3);
+
+        List<Future<String>> futures = submitAll(List.of(
+                order(first, product, 2),
+                order(invalid, product, 0),
+                order(third, product, 3)));
+
+        assertThat(futures.get(0).get()).isEqualTo(PROCESSED);
+        assertThatThrownBy(() -> futures.get(1).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(futures.get(2).get()).isEqualTo(PROCESSED);
+        // The rolled-back batch left nothing behind, so the retried orders are applied once
+        assertThat(stock(product)).isEqualTo(5);
+        assertThat(saleReferences(product)).containsExactlyInAnyOrder(first, third);
+        assertThat(batchSizes().max()).isEqualTo(3);
+    }
+
+    // Waits until the whole batch is queued, so the orders are applied in one transaction
+    private ReservationService batching(int batchSize) {
+        return new ReservationService(productRepository, orderService, idempotencyStore, stripedStockService, meterRegistry,
+                Duration.ofMinutes(10), Duration.ofMinutes(30), true, batchSize, Duration.ofSeconds(10), 100);
+    }
+
+    private List<String> submitConcurrently(List<OrderRequest> orders) throws Exception {
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : submitAll(orders)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private List<Future<String>> submitAll(List<OrderRequest> orders) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(orders.size());
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (OrderRequest order : orders) {
+                futures.add(executor.submit(() -> batching.processOrder(order)));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        return futures;
+    }
+
+    private DistributionSummary batchSizes() {
+        return meterRegistry.get("inventory.orders.batch.size").summary();
+    }
+
+    private List<String> saleReferences(Long productId) {
+        return ledgerRepository.findHistory(productId, Long.MAX_VALUE, PageRequest.of(0, 100)).stream()
+                .filter(entry -> entry.getType() == StockLedgerEntry.Type.SALE)
+                .map(StockLedgerEntry::getReference)
+                .toList();
+    }
+
+    private int stock(Long productId) {
+        return productService.getProductById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private Long product(int stock) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName("Batched");
+        dto.setPrice(1.0);
+        dto.setStockQuantity(stock);
+        return productService.addProduct(dto).getId();
+    }
+
+    private static String orderId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static OrderRequest order(String orderId, Long productId, int quantity) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(orderId);
+        request.setItems(List.of(item(productId, quantity)));
+        return request;
+    }
+
+    private static OrderRequest order(String orderId, Long firstProduct, int firstQuantity, Long secondProduct, int secondQuantity) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(orderId);
+        request.setItems(List.of(item(firstProduct, firstQuantity), item(secondProduct, secondQuantity)));
+        return request;
+    }
+
+    private static OrderRequest.OrderItem item(Long productId, int quantity) {
+        OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
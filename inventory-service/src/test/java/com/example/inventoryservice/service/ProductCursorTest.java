@@ -0,0 +1,97 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void roundTripsEverySortKey() {
+        Product last = product(42L, "Desk lamp", 19.99, 4.5, 120);
+        for (ProductCursor.SortKey key : ProductCursor.SortKey.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                String encoded = ProductCursor.after(last, key, direction).encode();
+                ProductCursor decoded = ProductCursor.decode(encoded, key, direction);
+                assertThat(decoded.encode()).as("%s %s", key, direction).isEqualTo(encoded);
+            }
+        }
+    }
+
+    @Test
+    void encodesSortValueAndIdAsUrlSafeBase64() {
+        String encoded = ProductCursor.after(product(7L, "Lamp", 12.5, null, null), ProductCursor.SortKey.PRICE, Sort.Direction.DESC).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+        assertThat(decode(encoded)).isEqualTo("price|DESC|7|12.5");
+    }
+
+    @Test
+    void idCursorCarriesNoSortValue() {
+        String encoded = ProductCursor.after(product(7L, "Lamp", 12.5, null, null), ProductCursor.SortKey.ID, Sort.Direction.ASC).encode();
+
+        assertThat(decode(encoded)).isEqualTo("id|ASC|7|");
+    }
+
+    @Test
+    void namesContainingTheSeparatorSurviveTheRoundTrip() {
+        Product last = product(3L, "Cable | 2m | black", 5.0, null, null);
+        String encoded = ProductCursor.after(last, ProductCursor.SortKey.NAME, Sort.Direction.ASC).encode();
+
+        assertThat(decode(encoded)).isEqualTo("name|ASC|3|Cable | 2m | black");
+        assertThat(ProductCursor.decode(encoded, ProductCursor.SortKey.NAME, Sort.Direction.ASC).encode()).isEqualTo(encoded);
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSortOrder() {
+        String encoded = ProductCursor.after(product(7L, "Lamp", 12.5, null, null), ProductCursor.SortKey.PRICE, Sort.Direction.ASC).encode();
+
+        assertThatThrownBy(() -> ProductCursor.decode(encoded, ProductCursor.SortKey.PRICE, Sort.Direction.DESC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor belongs to a different sort order");
+        assertThatThrownBy(() -> ProductCursor.decode(encoded, ProductCursor.SortKey.RATING, Sort.Direction.ASC))
+                .hasMessage("Cursor belongs to a different sort order");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : new String[] {"not base64!", encode("price|ASC|7"), encode("price|ASC|seven|1.0"), encode("price|ASC|7|cheap")}) {
+            assertThatThrownBy(() -> ProductCursor.decode(cursor, ProductCursor.SortKey.PRICE, Sort.Direction.ASC))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed cursor");
+        }
+    }
+
+    @Test
+    void parsesSortKeysAndDirectionsCaseInsensitively() {
+        assertThat(ProductCursor.SortKey.of("REVIEWCOUNT")).isEqualTo(ProductCursor.SortKey.REVIEW_COUNT);
+        assertThat(ProductCursor.direction("DESC")).isEqualTo(Sort.Direction.DESC);
+        assertThatThrownBy(() -> ProductCursor.SortKey.of("stock")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCursor.direction("up")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Product product(Long id, String name, Double price, Double rating, Integer reviewCount) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setRating(rating);
+        product.setReviewCount(reviewCount);
+        return product;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
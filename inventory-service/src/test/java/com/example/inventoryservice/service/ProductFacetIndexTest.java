@@ -0,0 +1,116 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private static final ProductFacetIndex.Filter NO_FILTER =
+            new ProductFacetIndex.Filter(null, 0, ProductFacetIndex.PRICE_EDGES.length, 0);
+
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findFacetValues()).thenReturn(List.of(
+                new Object[] {"Electronics", 30.0, 4.5},
+                new Object[] {"Electronics", 120.0, 3.0},
+                new Object[] {"Books", 10.0, null},
+                new Object[] {"Books", 25.0, 5.0},
+                new Object[] {null, 3000.0, 4.0},
+                new Object[] {"Books", null, 4.0}));
+        facetIndex = new ProductFacetIndex(productRepository);
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void countsEveryPricedProductWithoutFilters() {
+        ProductFacetIndex.Counts counts = facetIndex.count(NO_FILTER);
+
+        assertThat(counts.total()).isEqualTo(5);
+        assertThat(counts.categories()).containsExactly(entry("Books", 2), entry("Electronics", 2), entry("General", 1));
+        assertThat(counts.priceRanges()).containsExactly(
+                entry("0-25", 1), entry("25-50", 2), entry("50-100", 0), entry("100-250", 1),
+                entry("250-500", 0), entry("500-1000", 0), entry("1000-2500", 0), entry("2500+", 1));
+        // A product with no rating is only in the 0-star band, which has no "n+" entry
+        assertThat(counts.ratings()).containsExactly(
+                entry("5+", 1), entry("4+", 3), entry("3+", 4), entry("2+", 4), entry("1+", 4));
+    }
+
+    @Test
+    void countsEachFacetWithEveryFilterButItsOwn() {
+        ProductFacetIndex.Filter filter = new ProductFacetIndex.Filter(List.of("Electronics"),
+                ProductFacetIndex.priceBandStartingAt(25), ProductFacetIndex.priceBandStartingAt(100),
+                ProductFacetIndex.ratingBandStartingAt(4));
+
+        ProductFacetIndex.Counts counts = facetIndex.count(filter);
+
+        assertThat(counts.total()).isEqualTo(1);
+        // Other categories under the same price and rating filters
+        assertThat(counts.categories()).containsExactly(entry("Books", 1), entry("Electronics", 1));
+        // Electronics rated 4 and up, at any price
+        assertThat(counts.priceRanges()).containsEntry("25-50", 1).containsEntry("100-250", 0);
+        // Electronics priced 25-100, at any rating
+        assertThat(counts.ratings()).containsEntry("5+", 0).containsEntry("4+", 1).containsEntry("3+", 1);
+    }
+
+    @Test
+    void keepsCountsCurrentOnAddMoveAndRemove() {
+        Product product = new Product();
+        product.setCategory("Garden");
+        product.setPrice(60.0);
+        product.setRating(2.5);
+        ProductFacetIndex.Entry before = facetIndex.entryOf(product);
+        facetIndex.add(before);
+        assertThat(facetIndex.count(NO_FILTER).categories()).containsEntry("Garden", 1);
+
+        product.setPrice(600.0);
+        ProductFacetIndex.Entry after = facetIndex.entryOf(product);
+        facetIndex.move(before, after);
+        ProductFacetIndex.Counts moved = facetIndex.count(NO_FILTER);
+        assertThat(moved.priceRanges()).containsEntry("50-100", 0).containsEntry("500-1000", 1);
+        assertThat(moved.total()).isEqualTo(6);
+
+        facetIndex.remove(after);
+        ProductFacetIndex.Counts removed = facetIndex.count(NO_FILTER);
+        assertThat(removed.total()).isEqualTo(5);
+        assertThat(removed.categories()).doesNotContainKey("Garden");
+    }
+
+    @Test
+    void productsWithoutAPriceAreNotCounted() {
+        Product product = new Product();
+        product.setCategory("Books");
+
+        assertThat(facetIndex.entryOf(product)).isNull();
+        facetIndex.add(null);
+        assertThat(facetIndex.count(NO_FILTER).total()).isEqualTo(5);
+    }
+
+    @Test
+    void resolvesCategoriesIgnoringCase() {
+        assertThat(facetIndex.resolveCategory("books")).containsExactly("Books");
+        assertThat(facetIndex.resolveCategory("toys")).isEmpty();
+    }
+
+    @Test
+    void acceptsOnlyFiltersOnBandEdges() {
+        assertThat(ProductFacetIndex.priceBandStartingAt(0)).isZero();
+        assertThat(ProductFacetIndex.priceBandStartingAt(2500)).isEqualTo(ProductFacetIndex.PRICE_EDGES.length - 1);
+        assertThat(ProductFacetIndex.ratingBandStartingAt(3.5)).isEqualTo(7);
+        assertThatThrownBy(() -> ProductFacetIndex.priceBandStartingAt(30)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductFacetIndex.ratingBandStartingAt(4.25)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductFacetIndex.ratingBandStartingAt(5.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.ProductImportResultDTO;
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ProductImportServiceTest {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Keeps each test's products apart from the seeded catalog and from other tests
+    private final String tag = UUID.randomUUID().toString().substring(0, 8);
+
+    @Test
+    void readsQuotedMultiLineCsvAndReportsBadRecordsByLine() throws IOException {
+        String csv = "Name,price,stockQuantity,description,category\r\n"
+                + "\"" + tag + " Lamp, \"\"deluxe\"\"\",19.5,3,\"Two\nlines\",Lighting\r\n"
+                + "\n"
+                + tag + " Plain,5,1,,\n"
+                + tag + " Bad,abc,1,x,y\n"
+                + tag + " Short,1\n"
+                + tag + " NoStock,2,,x,y\n"
+                + "\"" + tag + " Unterminated,1,1,x,y\n";
+
+        ProductImportResultDTO result = importService.importProducts(stream(csv), CSV);
+
+        assertThat(result.getReceived()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(errors(result)).containsExactly(
+                entry(6L, "price: 'abc' is not a number"),
+                entry(7L, "Expected 5 fields but found 2"),
+                entry(8L, "stockQuantity: Stock quantity is required"),
+                entry(9L, "Unterminated quoted field"));
+
+        Map<String, Product> imported = importedProducts();
+        Product lamp = imported.get(tag + " Lamp, \"deluxe\"");
+        assertThat(lamp.getPrice()).isEqualTo(19.5);
+        assertThat(lamp.getStockQuantity()).isEqualTo(3);
+        assertThat(lamp.getDescription()).isEqualTo("Two\nlines");
+        assertThat(lamp.getCategory()).isEqualTo("Lighting");
+        // Empty fields are left unset
+        assertThat(imported.get(tag + " Plain").getDescription()).isNull();
+    }
+
+    @Test
+    void rejectsCsvWithoutAUsableHeader() {
+        assertThatThrownBy(() -> importService.importProducts(stream(""), CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV import needs a header row");
+        assertThatThrownBy(() -> importService.importProducts(stream("name,colour\n"), CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unknown CSV column 'colour'");
+        assertThatThrownBy(() -> importService.importProducts(stream("name,Name\n"), CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV column 'Name' appears twice");
+    }
+
+    @Test
+    void readsNdjsonIgnoringIdsAndReportsBadLines() throws IOException {
+        String ndjson = "{\"id\":999999,\"name\":\"" + tag + " First\",\"price\":10.0,\"stockQuantity\":4}\n"
+                + "\n"
+                + "{\"name\":\n"
+                + "null\n"
+                + "{\"name\":\"" + tag + " Free\",\"price\":-1.0,\"stockQuantity\":4}\n"
+                + "{\"name\":\"" + tag + " Second\",\"price\":2.5,\"stockQuantity\":1,\"category\":\"Books\"}";
+
+        ProductImportResultDTO result = importService.importProducts(stream(ndjson), NDJSON);
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(errors(result)).containsOnlyKeys(3L, 4L, 5L);
+        assertThat(errors(result).get(3L)).startsWith("Malformed JSON");
+        assertThat(errors(result).get(4L)).isEqualTo("Expected a JSON object");
+        assertThat(errors(result).get(5L)).isEqualTo("price: Price must be positive");
+
+        Map<String, Product> imported = importedProducts();
+        assertThat(imported).containsOnlyKeys(tag + " First", tag + " Second");
+        assertThat(imported.get(tag + " First").getId()).isNotEqualTo(999999L);
+        assertThat(imported.get(tag + " Second").getCategory()).isEqualTo("Books");
+    }
+
+    @Test
+    void rowTheDatabaseRejectsCostsOnlyItself() throws IOException {
+        String ndjson = "{\"name\":\"" + tag + " Ok\",\"price\":1.0,\"stockQuantity\":1}\n"
+                + "{\"name\":\"" + tag + " " + "x".repeat(300) + "\",\"price\":1.0,\"stockQuantity\":1}\n"
+                + "{\"name\":\"" + tag + " Also ok\",\"price\":1.0,\"stockQuantity\":1}\n";
+
+        ProductImportResultDTO result = importService.importProducts(stream(ndjson), NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(errors(result)).containsOnlyKeys(2L);
+        assertThat(importedProducts()).containsOnlyKeys(tag + " Ok", tag + " Also ok");
+    }
+
+    @Test
+    void rejectsOtherFormats() {
+        assertThatThrownBy(() -> importService.importProducts(stream("{}"), MediaType.APPLICATION_JSON))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unsupported import format");
+    }
+
+    private Map<String, Product> importedProducts() {
+        return productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith(tag))
+                .collect(Collectors.toMap(Product::getName, Function.identity()));
+    }
+
+    private static Map<Long, String> errors(ProductImportResultDTO result) {
+        return result.getErrors().stream()
+                .collect(Collectors.toMap(ProductImportResultDTO.RowError::getLine, ProductImportResultDTO.RowError::getMessage));
+    }
+
+    private static ByteArrayInputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
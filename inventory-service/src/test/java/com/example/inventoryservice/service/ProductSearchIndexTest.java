@@ -0,0 +1,151 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class), 3.0, 2.0, 1.0);
+    }
+
+    @Test
+    void scoresWithBm25fOverBoostedLengthNormalizedFields() {
+        index.index(product(1L, "Wireless Mouse", "Electronics", "A small mouse"));
+        index.index(product(2L, "Desk", "Furniture", "Wooden desk"));
+
+        ProductSearchIndex.Result result = index.search("mouse", 0, 10);
+
+        // Average field lengths: name 1.5, category 1, description 2. Product 1 has "mouse"
+        // once in a 2-term name and once in a 2-term description
+        double nameTf = 3.0 * 1 / (1 - 0.75 + 0.75 * 2 / 1.5);
+        double descriptionTf = 1.0 * 1 / (1 - 0.75 + 0.75 * 2 / 2.0);
+        double tf = nameTf + descriptionTf;
+        double idf = Math.log(1 + (2 - 1 + 0.5) / (1 + 0.5));
+        assertThat(result.total()).isEqualTo(1);
+        assertThat(result.hits().get(0).productId()).isEqualTo(1L);
+        assertThat(result.hits().get(0).score()).isCloseTo(idf * tf * (1.2 + 1) / (tf + 1.2), within(1e-9));
+    }
+
+    @Test
+    void boostedFieldsOutrankTheDescription() {
+        index.index(product(1L, "Desk lamp", "Lighting", "Clamps onto any mouse mat"));
+        index.index(product(2L, "Gaming mouse", "Peripherals", "Eight buttons"));
+        index.index(product(3L, "Mat", "Mouse", "Cloth"));
+
+        assertThat(ids(index.search("mouse", 0, 10))).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        index.index(product(1L, "Red cable", "Cables", "Cable"));
+        index.index(product(2L, "Blue cable", "Cables", "Cable"));
+        index.index(product(3L, "Red lamp", "Lighting", "Lamp"));
+        index.index(product(4L, "Green lamp", "Lighting", "Lamp"));
+
+        ProductSearchIndex.Hit blue = index.search("blue", 0, 10).hits().get(0);
+        ProductSearchIndex.Hit red = index.search("red", 0, 10).hits().get(0);
+        assertThat(blue.score()).isGreaterThan(red.score());
+    }
+
+    @Test
+    void everyQueryTermMustMatch() {
+        index.index(product(1L, "Wireless mouse", "Electronics", null));
+        index.index(product(2L, "Wireless keyboard", "Electronics", null));
+
+        assertThat(ids(index.search("wireless mouse", 0, 10))).containsExactly(1L);
+        assertThat(index.search("wireless speaker", 0, 10).total()).isZero();
+        assertThat(index.search("the of and", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void matchesStemmedForms() {
+        index.index(product(1L, "AA batteries", "Power", "Pack of rechargeable batteries"));
+
+        assertThat(ids(index.search("battery", 0, 10))).containsExactly(1L);
+        assertThat(ProductSearchIndex.stem("running")).isEqualTo("run");
+        assertThat(ProductSearchIndex.stem("boxes")).isEqualTo("box");
+        assertThat(ProductSearchIndex.stem("glass")).isEqualTo("glass");
+    }
+
+    @Test
+    void typosAndPrefixesMatchBelowAnExactMatch() {
+        index.index(product(1L, "Wireless mouse", "Electronics", null));
+        index.index(product(2L, "Desk", "Furniture", null));
+        double exact = index.search("mouse", 0, 10).hits().get(0).score();
+
+        // Swapped letters, then a prefix of the last term as it is being typed
+        ProductSearchIndex.Result typo = index.search("mosue", 0, 10);
+        assertThat(ids(typo)).containsExactly(1L);
+        assertThat(typo.hits().get(0).score()).isCloseTo(0.6 * exact, within(1e-9));
+        ProductSearchIndex.Result prefix = index.search("mou", 0, 10);
+        assertThat(ids(prefix)).containsExactly(1L);
+        assertThat(prefix.hits().get(0).score()).isCloseTo(0.8 * exact, within(1e-9));
+        // Prefixes only apply to the last term
+        assertThat(index.search("mou desk", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void recognizesSingleEdits() {
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "mouse")).isTrue();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "mose")).isTrue();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "mousse")).isTrue();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "moise")).isTrue();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "muose")).isTrue();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "muuse2")).isFalse();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "house2")).isFalse();
+        assertThat(ProductSearchIndex.editDistanceAtMostOne("mouse", "omuse2")).isFalse();
+    }
+
+    @Test
+    void pagesHitsByScoreThenProductId() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(product(id, "Lamp", "Lighting", null));
+        }
+        index.index(product(6L, "Lamp lamp", "Lighting", "Lamp"));
+
+        assertThat(ids(index.search("lamp", 0, 3))).containsExactly(6L, 1L, 2L);
+        ProductSearchIndex.Result second = index.search("lamp", 3, 3);
+        assertThat(second.total()).isEqualTo(6);
+        assertThat(ids(second)).containsExactly(3L, 4L, 5L);
+        assertThat(index.search("lamp", 6, 3).hits()).isEmpty();
+    }
+
+    @Test
+    void reindexingAndRemovalKeepTheIndexCurrent() {
+        index.index(product(1L, "Desk lamp", "Lighting", null));
+        index.index(product(2L, "Floor lamp", "Lighting", null));
+
+        index.index(product(1L, "Desk chair", "Furniture", null));
+        assertThat(ids(index.search("lamp", 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search("chair", 0, 10))).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("lamp", 0, 10).total()).isZero();
+        assertThat(index.search("flor", 0, 10).total()).isZero();
+    }
+
+    private static List<Long> ids(ProductSearchIndex.Result result) {
+        return result.hits().stream().map(ProductSearchIndex.Hit::productId).toList();
+    }
+
+    private static Product product(Long id, String name, String category, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        return product;
+    }
+}
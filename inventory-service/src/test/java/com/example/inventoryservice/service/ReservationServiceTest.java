@@ -0,0 +1,115 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.AvailabilityDTO;
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ReservationDTO;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.model.Product;
+import com.example.inventoryservice.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setStockQuantity(10);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        StripedStockService stripedStockService = mock(StripedStockService.class);
+        when(stripedStockService.totalStock(any(Product.class))).thenAnswer(call -> call.<Product>getArgument(0).getStockQuantity());
+
+        reservationService = new ReservationService(productRepository, mock(OrderService.class), mock(IdempotencyStore.class),
+                stripedStockService, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(30),
+                false, 64, Duration.ofMillis(2), 1000);
+    }
+
+    @Test
+    void heldStockIsUnavailableUntilTheReservationExpires() throws InterruptedException {
+        ReservationDTO held = reservationService.reserve(request("order-1", 3, 1));
+        assertThat(held.getStatus()).isEqualTo("HELD");
+        assertThat(available()).isEqualTo(7);
+
+        // Not due yet: the sweep leaves it alone
+        reservationService.expireDueReservations();
+        assertThat(reservationService.getReservation("order-1")).isPresent();
+
+        awaitExpiry("order-1");
+        AvailabilityDTO availability = reservationService.getAvailability(PRODUCT_ID).orElseThrow();
+        assertThat(availability.getReserved()).isZero();
+        assertThat(availability.getAvailable()).isEqualTo(10);
+        assertThat(expiredCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredStockCanBeReservedAgain() throws InterruptedException {
+        reservationService.reserve(request("order-1", 10, 1));
+        assertThat(reservationService.reserve(request("order-2", 1, 60)).getStatus()).isEqualTo("REJECTED");
+
+        awaitExpiry("order-1");
+        assertThat(reservationService.reserve(request("order-2", 10, 60)).getStatus()).isEqualTo("HELD");
+    }
+
+    @Test
+    void releasedReservationIsNotExpiredAgain() throws InterruptedException {
+        reservationService.reserve(request("order-1", 3, 1));
+        reservationService.reserve(request("order-2", 4, 60));
+        reservationService.release("order-1");
+        assertThat(available()).isEqualTo(6);
+
+        Thread.sleep(1100);
+        reservationService.expireDueReservations();
+        assertThat(expiredCount()).isZero();
+        // The release already gave its units back; expiry must not give them back twice
+        assertThat(available()).isEqualTo(6);
+        assertThat(reservationService.getReservation("order-2")).isPresent();
+    }
+
+    private void awaitExpiry(String orderId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (reservationService.getReservation(orderId).isPresent() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            reservationService.expireDueReservations();
+        }
+        assertThat(reservationService.getReservation(orderId)).isEmpty();
+    }
+
+    private int available() {
+        return reservationService.getAvailability(PRODUCT_ID).orElseThrow().getAvailable();
+    }
+
+    private double expiredCount() {
+        return meterRegistry.find("inventory.reservations").tag("outcome", "expired").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static ReservationRequest request(String orderId, int quantity, int ttlSeconds) {
+        OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+        item.setProductId(PRODUCT_ID);
+        item.setQuantity(quantity);
+        ReservationRequest request = new ReservationRequest();
+        request.setOrderId(orderId);
+        request.setItems(List.of(item));
+        request.setTtlSeconds(ttlSeconds);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void countsExactlyWhileThereIsRoom() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add(1L, 2);
+        sketch.add(2L, 5);
+        sketch.add(1L, 3);
+
+        assertThat(totals(sketch)).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 5L, 2L, 5L));
+    }
+
+    @Test
+    void newItemReplacesTheSmallestCounterAndInheritsItsCount() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add(1L, 5);
+        sketch.add(2L, 3);
+        sketch.add(3L, 1);
+
+        assertThat(totals(sketch)).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 5L, 3L, 4L));
+    }
+
+    @Test
+    void overEstimatesByAtMostTheSmallestCountAndKeepsHeavyHitters() {
+        int capacity = 10;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<Long, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        long streamTotal = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Items 0 and 1 take about a quarter of the stream each, the rest is a long tail
+            long item = random.nextInt(4) < 2 ? random.nextInt(2) : 2 + random.nextInt(500);
+            sketch.add(item, 1);
+            actual.merge(item, 1L, Long::sum);
+            streamTotal++;
+        }
+
+        Map<Long, Long> estimated = totals(sketch);
+        long smallest = estimated.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+        assertThat(estimated).hasSize(capacity);
+        assertThat(smallest).isLessThanOrEqualTo(streamTotal / capacity);
+        estimated.forEach((item, count) -> assertThat(count)
+                .isGreaterThanOrEqualTo(actual.get(item))
+                .isLessThanOrEqualTo(actual.get(item) + smallest));
+        assertThat(estimated).containsKeys(0L, 1L);
+    }
+
+    @Test
+    void addToMergesIntoExistingTotals() {
+        SpaceSavingSketch first = new SpaceSavingSketch(4);
+        first.add(1L, 2);
+        first.add(2L, 1);
+        SpaceSavingSketch second = new SpaceSavingSketch(4);
+        second.add(1L, 3);
+        second.add(3L, 4);
+
+        Map<Long, Long> totals = new HashMap<>();
+        first.addTo(totals);
+        second.addTo(totals);
+
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 5L, 2L, 1L, 3L, 4L));
+    }
+
+    @Test
+    void clearEmptiesTheSummary() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add(1L, 5);
+        sketch.add(2L, 3);
+        sketch.clear();
+        sketch.add(3L, 1);
+
+        assertThat(totals(sketch)).containsExactlyInAnyOrderEntriesOf(Map.of(3L, 1L));
+    }
+
+    private static Map<Long, Long> totals(SpaceSavingSketch sketch) {
+        Map<Long, Long> totals = new HashMap<>();
+        sketch.addTo(totals);
+        return totals;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.StockEventDTO;
+import com.example.inventoryservice.dto.StockEventPageDTO;
+import com.example.inventoryservice.dto.StockMovementDTO;
+import com.example.inventoryservice.model.StockEvent;
+import com.example.inventoryservice.model.StockLedgerEntry;
+import com.example.inventoryservice.repository.StockEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class StockEventServiceTest {
+
+    @Autowired
+    private StockEventService stockEventService;
+
+    @Autowired
+    private StockEventRepository stockEventRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rolledBackOrderProducesNoEvent() {
+        Long productId = product(10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(orderService.processOrder(order(productId, 3))).startsWith("Order processed");
+            status.setRollbackOnly();
+        });
+        // Rejected for stock: its transaction commits, but without a stock change
+        assertThat(orderService.processOrder(order(productId, 11))).startsWith("Insufficient stock");
+
+        assertThat(events(productId)).isEmpty();
+        assertThat(productService.getProductById(productId).orElseThrow().getStockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void relayedEventsGetContiguousPositionsAndTheLevelAtPublication() {
+        long start = stockEventRepository.findLastPosition();
+        Long first = product(10);
+        Long second = product(20);
+        move(first, 5);
+        orderService.processOrder(order(second, 4));
+        move(first, -2);
+
+        awaitPublished(first, second);
+
+        List<Long> positions = stockEventRepository.findPublishedAfter(start, PageRequest.of(0, 1000)).stream()
+                .map(StockEvent::getPosition)
+                .toList();
+        assertThat(positions).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(positions).isEqualTo(LongStream.rangeClosed(start + 1, start + positions.size()).boxed().toList());
+        List<StockEvent> firstEvents = events(first);
+        assertThat(firstEvents).extracting(StockEvent::getQuantityChange).containsExactly(5, -2);
+        assertThat(firstEvents.get(1).getPosition()).isGreaterThan(firstEvents.get(0).getPosition());
+        assertThat(firstEvents.get(1).getStockQuantity()).isEqualTo(13);
+        assertThat(events(second)).singleElement().satisfies(event -> {
+            assertThat(event.getCause()).isEqualTo("ORDER");
+            assertThat(event.getStockQuantity()).isEqualTo(16);
+        });
+    }
+
+    @Test
+    void waitingPollCompletesWhenAChangeCommits() {
+        Long productId = product(10);
+        // Caught up: nothing recorded earlier is still waiting for the relay
+        awaitCondition(() -> stockEventRepository.findUnpublished(PageRequest.of(0, 1)).isEmpty());
+        long cursor = stockEventRepository.findLastPosition();
+
+        DeferredResult<StockEventPageDTO> result = stockEventService.poll(cursor, 100, Duration.ofSeconds(20));
+        assertThat(result.hasResult()).isFalse();
+        move(productId, 3);
+
+        // Completed once the relay publishes the committed change, long before the poll would time out
+        awaitCondition(result::hasResult);
+        StockEventPageDTO page = (StockEventPageDTO) result.getResult();
+        assertThat(page.getEvents()).extracting(StockEventDTO::getProductId).contains(productId);
+        assertThat(page.getCursor()).isGreaterThan(cursor);
+    }
+
+    @Test
+    void compactionKeepsTheLatestEventOfEveryProduct() {
+        Long busy = product(10);
+        Long quiet = product(10);
+        move(busy, 1);
+        move(busy, 2);
+        move(quiet, 4);
+        move(busy, 3);
+        awaitPublished(busy, quiet);
+        long horizon = stockEventRepository.findLastPosition();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> stockEventRepository.deleteSupersededUpTo(horizon));
+
+        assertThat(events(busy)).singleElement().satisfies(event -> {
+            assertThat(event.getQuantityChange()).isEqualTo(3);
+            assertThat(event.getStockQuantity()).isEqualTo(16);
+        });
+        assertThat(events(quiet)).singleElement().satisfies(event -> assertThat(event.getStockQuantity()).isEqualTo(14));
+    }
+
+    @Test
+    void deletedProductIsPublishedWithoutALevel() {
+        Long productId = product(7);
+
+        productService.deleteProduct(productId);
+        awaitPublished(productId);
+
+        assertThat(events(productId)).singleElement().satisfies(event -> {
+            assertThat(event.getCause()).isEqualTo("DELETE");
+            assertThat(event.getQuantityChange()).isEqualTo(-7);
+            assertThat(event.getStockQuantity()).isNull();
+        });
+    }
+
+    private void awaitPublished(Long... productIds) {
+        awaitCondition(() -> {
+            for (Long productId : productIds) {
+                if (events(productId).stream().anyMatch(event -> event.getPosition() == null)) return false;
+            }
+            return true;
+        });
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10 seconds").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // In recording order
+    private List<StockEvent> events(Long productId) {
+        return stockEventRepository.findAll().stream()
+                .filter(event -> event.getProductId().equals(productId))
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    private void move(Long productId, int quantity) {
+        StockMovementDTO movement = new StockMovementDTO();
+        movement.setType(StockLedgerEntry.Type.ADJUSTMENT);
+        movement.setQuantity(quantity);
+        movement.setReference("test");
+        assertThat(productService.moveStock(productId, movement)).isPresent();
+    }
+
+    private Long product(int stock) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName("Evented");
+        dto.setPrice(1.0);
+        dto.setStockQuantity(stock);
+        return productService.addProduct(dto).getId();
+    }
+
+    private static OrderRequest order(Long productId, int quantity) {
+        OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(UUID.randomUUID().toString());
+        request.setItems(List.of(item));
+        return request;
+    }
+}
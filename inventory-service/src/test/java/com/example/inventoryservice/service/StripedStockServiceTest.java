@@ -0,0 +1,260 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.OrderRequest;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.model.StockStripe;
+import com.example.inventoryservice.repository.ProductRepository;
+import com.example.inventoryservice.repository.StockStripeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class StripedStockServiceTest {
+
+    @Autowired
+    private StripedStockService stripedStockService;
+
+    @Autowired
+    private StockStripeRepository stripeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    @Transactional
+    void enableSpreadsStockEvenlyOverStripes() {
+        Long productId = stripedProduct(10, 4);
+
+        assertThat(stripes(productId)).containsExactly(3, 3, 2, 2);
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isZero();
+        assertThat(stripedStockService.totalStock(productRepository.findById(productId).orElseThrow())).isEqualTo(10);
+    }
+
+    @Test
+    @Transactional
+    void exclusiveDecrementSplitsAcrossStripesWhenNoneCoversTheOrder() {
+        Long productId = stripedProduct(10, 4);
+
+        assertThat(stripedStockService.decrement(productId, "order-1", 9, 0, false)).isTrue();
+
+        assertThat(stripes(productId).stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+        assertThat(stripes(productId)).allSatisfy(quantity -> assertThat(quantity).isNotNegative());
+    }
+
+    @Test
+    @Transactional
+    void failedSplitGivesBackWhatItTook() {
+        Long productId = stripedProduct(10, 4);
+
+        assertThat(stripedStockService.decrement(productId, "order-1", 11, 0, false)).isFalse();
+
+        assertThat(stripes(productId)).containsExactly(3, 3, 2, 2);
+    }
+
+    @Test
+    @Transactional
+    void sharedDecrementOnlyWalksUpFromTheHomeStripeAndNeverSplits() {
+        Long productId = stripedProduct(10, 4);
+        String lastStripeOrder = orderIdWithHomeStripe(3, 4);
+
+        // Stripe 3 holds 2; the 3 units in stripes 0 and 1 are below the home stripe
+        assertThat(stripedStockService.decrement(productId, lastStripeOrder, 3, 0, true)).isFalse();
+        assertThat(stripedStockService.decrement(productId, orderIdWithHomeStripe(0, 4), 4, 0, true)).isFalse();
+        assertThat(stripes(productId)).containsExactly(3, 3, 2, 2);
+
+        // Exclusive holders walk every stripe
+        assertThat(stripedStockService.decrement(productId, lastStripeOrder, 3, 0, false)).isTrue();
+        assertThat(stripes(productId).stream().mapToInt(Integer::intValue).sum()).isEqualTo(7);
+    }
+
+    @Test
+    @Transactional
+    void decrementRespectsStockReservedForOthers() {
+        Long productId = stripedProduct(10, 4);
+
+        assertThat(stripedStockService.decrement(productId, "order-1", 3, 8, false)).isFalse();
+        assertThat(stripedStockService.decrement(productId, "order-1", 2, 8, false)).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void setStockRebalancesAndIncrementReturnsToTheHomeStripe() {
+        Long productId = stripedProduct(10, 4);
+        stripedStockService.decrement(productId, "order-1", 9, 0, false);
+
+        stripedStockService.setStock(productId, 7);
+        assertThat(stripes(productId)).containsExactly(2, 2, 2, 1);
+
+        String order = orderIdWithHomeStripe(3, 4);
+        stripedStockService.increment(productId, order, 5);
+        assertThat(stripes(productId)).containsExactly(2, 2, 2, 6);
+    }
+
+    @Test
+    @Transactional
+    void disableFoldsStripesBackIntoTheProduct() {
+        Long productId = stripedProduct(10, 4);
+        stripedStockService.decrement(productId, "order-1", 4, 0, false);
+
+        stripedStockService.disable(productId);
+
+        assertThat(stripedStockService.isStriped(productId)).isFalse();
+        assertThat(stripes(productId)).isEmpty();
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isEqualTo(6);
+    }
+
+    /**
+     * Orders holding both products' locks shared, as direct orders for hot products do, each
+     * taking two hot products at once. Before shared holders were limited to ascending
+     * stripes, some of them deadlocked on each other's stripe rows.
+     */
+    @Test
+    void concurrentSharedDecrementsOfTwoHotProductsNeverDeadlock() throws Exception {
+        Long first = hotProduct(200);
+        Long second = hotProduct(260);
+        List<int[]> quantities = randomQuantities(80);
+
+        List<String> results = runConcurrently(quantities, quantity ->
+                orderService.processOrder(order(second, quantity[1], first, quantity[0]), Map.of(), Set.of(first, second)));
+
+        assertSoldExactly(first, 200, second, 260, quantities, results);
+    }
+
+    @Test
+    void concurrentDirectOrdersForHotProductsSellOutWithoutOverselling() throws Exception {
+        Long first = hotProduct(200);
+        Long second = hotProduct(260);
+        List<int[]> quantities = randomQuantities(80);
+
+        List<String> results = runConcurrently(quantities, quantity ->
+                reservationService.processOrder(order(second, quantity[1], first, quantity[0])));
+
+        assertSoldExactly(first, 200, second, 260, quantities, results);
+        // Rejected shared orders are retried under exclusive locks, so nothing is left that a rejected order needed
+        int leftFirst = productService.getProductById(first).orElseThrow().getStockQuantity();
+        int leftSecond = productService.getProductById(second).orElseThrow().getStockQuantity();
+        for (int i = 0; i < quantities.size(); i++) {
+            if (!results.get(i).startsWith("Order processed")) {
+                assertThat(quantities.get(i)[0] > leftFirst || quantities.get(i)[1] > leftSecond).isTrue();
+            }
+        }
+    }
+
+    private List<String> runConcurrently(List<int[]> quantities, Function<int[], String> order) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(30);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (int[] quantity : quantities) {
+                futures.add(executor.submit(() -> order.apply(quantity)));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            // Rethrows the exception, such as a lock failure, that an order ended with
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private void assertSoldExactly(Long first, int firstStock, Long second, int secondStock,
+                                   List<int[]> quantities, List<String> results) {
+        int soldFirst = 0;
+        int soldSecond = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).startsWith("Order processed")) {
+                soldFirst += quantities.get(i)[0];
+                soldSecond += quantities.get(i)[1];
+            } else {
+                assertThat(results.get(i)).startsWith("Insufficient stock");
+            }
+        }
+        assertThat(soldFirst).isPositive();
+        assertThat(productService.getProductById(first).orElseThrow().getStockQuantity()).isEqualTo(firstStock - soldFirst);
+        assertThat(productService.getProductById(second).orElseThrow().getStockQuantity()).isEqualTo(secondStock - soldSecond);
+    }
+
+    private static List<int[]> randomQuantities(int orders) {
+        Random random = new Random(42);
+        List<int[]> quantities = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            quantities.add(new int[] {1 + random.nextInt(9), 1 + random.nextInt(9)});
+        }
+        return quantities;
+    }
+
+    private Long stripedProduct(int stock, int stripes) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName("Striped");
+        dto.setPrice(1.0);
+        dto.setStockQuantity(stock);
+        Long productId = productService.addProduct(dto).getId();
+        stripedStockService.enable(productId, stripes);
+        return productId;
+    }
+
+    private Long hotProduct(int stock) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName("Hot");
+        dto.setPrice(1.0);
+        dto.setStockQuantity(stock);
+        Long productId = productService.addProduct(dto).getId();
+        productService.enableHotStock(productId, 8);
+        return productId;
+    }
+
+    private List<Integer> stripes(Long productId) {
+        return stripeRepository.findByProductIdOrderByStripeIndex(productId).stream()
+                .map(StockStripe::getQuantity)
+                .toList();
+    }
+
+    private static String orderIdWithHomeStripe(int stripe, int stripes) {
+        for (int i = 0; ; i++) {
+            String orderId = "order-" + i;
+            if (Math.floorMod(orderId.hashCode(), stripes) == stripe) return orderId;
+        }
+    }
+
+    private static OrderRequest order(Long firstProduct, int firstQuantity, Long secondProduct, int secondQuantity) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderId(UUID.randomUUID().toString());
+        request.setItems(List.of(item(firstProduct, firstQuantity), item(secondProduct, secondQuantity)));
+        return request;
+    }
+
+    private static OrderRequest.OrderItem item(Long productId, int quantity) {
+        OrderRequest.OrderItem item = new OrderRequest.OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}